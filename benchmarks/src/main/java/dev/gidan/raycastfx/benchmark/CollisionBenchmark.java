@@ -0,0 +1,69 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.MiniMap;
+import dev.gidan.raycastfx.prefabs.Player;
+import dev.gidan.raycastfx.world.CircleSweep;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.WorldGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The swept circle tests moving the player and every other body against the walls, on synthetic maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final int MOVES = 1024;
+
+    @Param({"0.02", "0.3"})
+    public double density;
+
+    private OccupancyGrid grid;
+    private double[] xs;
+    private double[] ys;
+    private double[] dxs;
+    private double[] dys;
+
+    @Setup
+    public void setUp() {
+        grid = Maps.random(density, 42);
+        Random random = new Random(7);
+        xs = new double[MOVES];
+        ys = new double[MOVES];
+        dxs = new double[MOVES];
+        dys = new double[MOVES];
+        for (int i = 0; i < MOVES; i++) {
+            // from a floor cell, by up to a cell in any direction
+            int cellX;
+            int cellY;
+            do {
+                cellX = random.nextInt(Maps.SIZE);
+                cellY = random.nextInt(Maps.SIZE);
+            } while (grid.isSolid(cellX, cellY));
+            xs[i] = (cellX + 0.5) * MiniMap.GRID_SIZE;
+            ys[i] = (cellY + 0.5) * MiniMap.GRID_SIZE;
+            dxs[i] = (random.nextDouble() * 2 - 1) * WorldGrid.CELL_SIZE;
+            dys[i] = (random.nextDouble() * 2 - 1) * WorldGrid.CELL_SIZE;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MOVES)
+    public double sweep() {
+        double reached = 0;
+        for (int i = 0; i < MOVES; i++) {
+            double x = CircleSweep.sweepX(grid, xs[i], ys[i], Player.RADIUS, dxs[i]);
+            reached += x + CircleSweep.sweepY(grid, x, ys[i], Player.RADIUS, dys[i]);
+        }
+        return reached;
+    }
+
+}
@@ -0,0 +1,84 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.MiniMap;
+import dev.gidan.raycastfx.entity.CollisionSystem;
+import dev.gidan.raycastfx.entity.EntitySnapshot;
+import dev.gidan.raycastfx.entity.EntityStore;
+import dev.gidan.raycastfx.entity.MovementSystem;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A simulation tick over thousands of bodies wandering a synthetic map: their velocities are set, as an AI would
+ * every tick, then the {@link MovementSystem} sweeps them against the walls, the {@link CollisionSystem} pushes apart
+ * the overlapping ones and the sprites are copied for the render thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+    private static final double TICK_SECONDS = 1.0 / 60;
+    private static final double SPEED = 40;
+    private static final double RADIUS = 4;
+
+    @Param({"1000", "10000"})
+    public int entityCount;
+
+    private EntityStore store;
+    private MovementSystem movement;
+    private CollisionSystem collision;
+    private double[] velocityX;
+    private double[] velocityY;
+
+    @Setup
+    public void setUp() {
+        OccupancyGrid grid = Maps.random(0.1, 42);
+        movement = new MovementSystem(grid);
+        collision = new CollisionSystem(grid);
+        store = new EntityStore();
+        velocityX = new double[entityCount];
+        velocityY = new double[entityCount];
+        Random random = new Random(7);
+        double worldSize = Maps.SIZE * MiniMap.GRID_SIZE;
+        for (int i = 0; i < entityCount; i++) {
+            int id = store.create(random.nextDouble() * worldSize, random.nextDouble() * worldSize, EntityStore.SPRITE);
+            store.setRadius(store.index(id), RADIUS);
+            double angle = random.nextDouble() * 2 * Math.PI;
+            velocityX[i] = Math.cos(angle) * SPEED;
+            velocityY[i] = Math.sin(angle) * SPEED;
+        }
+    }
+
+    @Benchmark
+    public int move() {
+        for (int i = 0; i < entityCount; i++) {
+            // blocked entities turn back
+            if (store.hasFlags(i, EntityStore.BLOCKED)) {
+                velocityX[i] = -velocityX[i];
+                velocityY[i] = -velocityY[i];
+            }
+            store.setVelocity(i, velocityX[i], velocityY[i]);
+        }
+        movement.update(store, TICK_SECONDS);
+        return movement.getCollisionChecks();
+    }
+
+    @Benchmark
+    public int collide() {
+        collision.update(store, TICK_SECONDS);
+        return collision.getContacts();
+    }
+
+    @Benchmark
+    public EntitySnapshot snapshot() {
+        return EntitySnapshot.capture(store);
+    }
+
+}
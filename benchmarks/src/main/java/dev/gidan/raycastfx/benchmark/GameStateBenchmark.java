@@ -0,0 +1,59 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.GameState;
+import dev.gidan.raycastfx.prefabs.Player;
+import dev.gidan.raycastfx.world.CircleSweep;
+import dev.gidan.raycastfx.world.WorldGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading the bundled map and moving the player against its walls through {@link GameState}.
+ * <p>
+ * Maps are decoded with ImageIO, so these benchmarks run without a display. Set {@code raycastfx.cacheDir} to an
+ * empty value to measure the decoding rather than the map cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateBenchmark {
+
+    private GameState gameState;
+    private double x;
+    private double y;
+
+    @Setup
+    public void setUp() {
+        gameState = new GameState();
+        x = gameState.getPlayer().getX();
+        y = gameState.getPlayer().getY();
+    }
+
+    @TearDown
+    public void tearDown() {
+        gameState.close();
+    }
+
+    @Benchmark
+    public GameState loadMap() {
+        GameState loaded = new GameState();
+        loaded.close();
+        return loaded;
+    }
+
+    /**
+     * A move of one cell along each axis from the spawn point
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double sweep() {
+        WorldGrid grid = gameState.getGrid();
+        double movedX = CircleSweep.sweepX(grid, x, y, Player.RADIUS, WorldGrid.CELL_SIZE);
+        return CircleSweep.sweepY(grid, movedX, y, Player.RADIUS, WorldGrid.CELL_SIZE);
+    }
+
+}
@@ -0,0 +1,47 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.util.GridUtil;
+import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.util.Vec2D;
+import javafx.geometry.Rectangle2D;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The angle-based cell border intersection, still used to clip rays against the minimap bounds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridUtilBenchmark {
+
+    private static final int DIRECTIONS = 16;
+
+    private Vec2D origin;
+    private Rectangle2D cell;
+    private Ray[] rays;
+
+    @Setup
+    public void setUp() {
+        origin = Vec2D.of(27.5, 33.25);
+        cell = new Rectangle2D(20, 20, 20, 20);
+        rays = new Ray[DIRECTIONS];
+        for (int i = 0; i < DIRECTIONS; i++) {
+            rays[i] = new Ray(Ray.Status.SHOOTING, origin, Vec2D.UP.rotateDeg(360.0 * i / DIRECTIONS + 1));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DIRECTIONS)
+    public void findCollisionPointAlongCellBorders(Blackhole blackhole) {
+        for (Ray ray : rays) {
+            blackhole.consume(GridUtil.findCollisionPointAlongCellBorders(origin, cell, ray));
+        }
+    }
+
+}
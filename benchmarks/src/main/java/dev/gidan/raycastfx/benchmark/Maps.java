@@ -0,0 +1,44 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.MiniMap;
+import dev.gidan.raycastfx.util.Vec2D;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+
+import java.util.Random;
+
+/**
+ * Synthetic maps, so the benchmarks do not depend on the content of the bundled map image.
+ */
+final class Maps {
+
+    static final int SIZE = 256;
+
+    private Maps() {
+    }
+
+    /**
+     * Builds a square map where every cell is a wall with the given probability.
+     * The center cell, where rays are shot from, is always empty.
+     */
+    static OccupancyGrid random(double density, long seed) {
+        OccupancyGrid grid = new OccupancyGrid(SIZE, SIZE);
+        Random random = new Random(seed);
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                if (random.nextDouble() < density) {
+                    grid.set(x, y, OccupancyGrid.WALL);
+                }
+            }
+        }
+        grid.set(SIZE / 2, SIZE / 2, OccupancyGrid.EMPTY);
+        return grid;
+    }
+
+    /**
+     * @return the world position at the center of the map
+     */
+    static Vec2D center() {
+        return Vec2D.of(SIZE / 2.0 * MiniMap.GRID_SIZE + MiniMap.GRID_SIZE / 2.0);
+    }
+
+}
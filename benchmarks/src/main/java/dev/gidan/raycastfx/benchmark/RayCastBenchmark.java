@@ -0,0 +1,79 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.render.Camera;
+import dev.gidan.raycastfx.render.ColumnCaster;
+import dev.gidan.raycastfx.render.RayBuffer;
+import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.util.Vec2D;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.RayCaster;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Casting the rays of a whole frame, as done by the frame renderers, at several resolutions and map densities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RayCastBenchmark {
+
+    private static final int ROTATIONS = 64;
+
+    @Param({"120", "800", "1920"})
+    public int columns;
+
+    @Param({"0.02", "0.1", "0.3"})
+    public double density;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Vec2D origin;
+    private Vec2D[] rotations;
+    private Camera camera;
+    private ColumnCaster columnCaster;
+    private RayCaster rayCaster;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        OccupancyGrid grid = Maps.random(density, 42);
+        origin = Maps.center();
+        rotations = new Vec2D[ROTATIONS];
+        for (int i = 0; i < ROTATIONS; i++) {
+            rotations[i] = Vec2D.UP.rotateDeg(360.0 * i / ROTATIONS);
+        }
+        camera = new Camera();
+        camera.configure(90, columns);
+        columnCaster = new ColumnCaster(grid, threads);
+        rayCaster = new RayCaster(grid);
+    }
+
+    @TearDown
+    public void tearDown() {
+        columnCaster.close();
+    }
+
+    @Benchmark
+    public RayBuffer castFrame() {
+        frame = (frame + 1) % ROTATIONS;
+        return columnCaster.cast(origin, rotations[frame], camera);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROTATIONS)
+    public double castSingleRay() {
+        double distance = 0;
+        for (Vec2D rotation : rotations) {
+            rayCaster.cast(origin.getX(), origin.getY(), rotation.getX(), rotation.getY(), Ray.INFINITE_DISTANCE);
+            distance += rayCaster.getDistance();
+        }
+        return distance;
+    }
+
+}
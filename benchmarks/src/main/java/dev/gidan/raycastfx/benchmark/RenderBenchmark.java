@@ -0,0 +1,86 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.MiniMap;
+import dev.gidan.raycastfx.render.Framebuffer;
+import dev.gidan.raycastfx.render.RayBuffer;
+import dev.gidan.raycastfx.render.SoftwareRenderer;
+import dev.gidan.raycastfx.render.Sprites;
+import dev.gidan.raycastfx.util.Vec2D;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering whole frames into a framebuffer with the software renderer, with flat shaded and textured walls and
+ * with sprites scattered on the floor cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+
+    private static final int ROTATIONS = 64;
+
+    @Param({"800x600", "1920x1080"})
+    public String size;
+
+    @Param({"0.02", "0.3"})
+    public double density;
+
+    @Param({"false", "true"})
+    public boolean textured;
+
+    @Param({"0", "500"})
+    public int spriteCount;
+
+    private Vec2D origin;
+    private Vec2D[] rotations;
+    private Framebuffer framebuffer;
+    private SoftwareRenderer renderer;
+    private Sprites sprites;
+    private int frame;
+
+    @Setup
+    public void setUp() {
+        OccupancyGrid grid = Maps.random(density, 42);
+        origin = Maps.center();
+        rotations = new Vec2D[ROTATIONS];
+        for (int i = 0; i < ROTATIONS; i++) {
+            rotations[i] = Vec2D.UP.rotateDeg(360.0 * i / ROTATIONS);
+        }
+        String[] dimensions = size.split("x");
+        framebuffer = new Framebuffer(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+        renderer = new SoftwareRenderer(grid, 1, textured ? SoftwareRenderer.newTextures() : null,
+                SoftwareRenderer.newSpriteTextures(List.of(0x30C040)));
+
+        sprites = new Sprites();
+        Random random = new Random(42);
+        while (sprites.getSize() < spriteCount) {
+            int cellX = random.nextInt(Maps.SIZE);
+            int cellY = random.nextInt(Maps.SIZE);
+            if (!grid.isSolid(cellX, cellY)) {
+                sprites.add((cellX + 0.5) * MiniMap.GRID_SIZE, (cellY + 0.5) * MiniMap.GRID_SIZE, Sprites.SPAWN_SCALE, 0);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.close();
+    }
+
+    @Benchmark
+    public RayBuffer renderFrame() {
+        frame = (frame + 1) % ROTATIONS;
+        Vec2D rotation = rotations[frame];
+        return renderer.render(framebuffer, origin.getX(), origin.getY(), rotation.getX(), rotation.getY(),
+                framebuffer.getWidth(), 90, 0, sprites);
+    }
+
+}
@@ -0,0 +1,86 @@
+package dev.gidan.raycastfx.benchmark;
+
+import dev.gidan.raycastfx.util.MutableVec2D;
+import dev.gidan.raycastfx.util.Vec2D;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The chains of vector operations found in the player movement and in the minimap projection,
+ * on immutable and on mutable vectors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vec2DBenchmark {
+
+    private Vec2D position;
+    private Vec2D rotation;
+    private Vec2D world;
+    private Vec2D minimapSize;
+    private Vec2D minimapOffset;
+    private final MutableVec2D scratch = new MutableVec2D();
+
+    @Setup
+    public void setUp() {
+        position = Vec2D.of(130.5, 250.25);
+        rotation = Vec2D.UP.rotateDeg(33);
+        world = Vec2D.of(170, 190);
+        minimapSize = Vec2D.of(200, 120);
+        minimapOffset = Vec2D.of(20, 20);
+    }
+
+    /**
+     * Same operations as the player moving forward while strafing.
+     */
+    @Benchmark
+    public Vec2D movement() {
+        Vec2D direction = Vec2D.ZERO;
+        direction = direction.add(rotation);
+        direction = direction.add(rotation.rotate(Math.PI / 2));
+        return position.add(direction.multiply(0.016 * 20));
+    }
+
+    /**
+     * Same operations as the minimap world to scene projection.
+     */
+    @Benchmark
+    public Vec2D worldToScene() {
+        return world.subtract(position)
+                .add(minimapSize.multiply(0.5))
+                .add(minimapOffset);
+    }
+
+    @Benchmark
+    public Vec2D rotateDeg() {
+        return rotation.rotateDeg(1);
+    }
+
+    /**
+     * {@link #movement()} on a reused {@link MutableVec2D}.
+     */
+    @Benchmark
+    public MutableVec2D movementMutable() {
+        return scratch.set(0, 0)
+                .add(rotation)
+                .add(-rotation.getY(), rotation.getX())
+                .multiply(0.016 * 20)
+                .add(position);
+    }
+
+    /**
+     * {@link #worldToScene()} on a reused {@link MutableVec2D}.
+     */
+    @Benchmark
+    public MutableVec2D worldToSceneMutable() {
+        return scratch.set(world)
+                .subtract(position)
+                .add(minimapSize.getX() * 0.5, minimapSize.getY() * 0.5)
+                .add(minimapOffset);
+    }
+
+}
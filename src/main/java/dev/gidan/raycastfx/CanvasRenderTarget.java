@@ -0,0 +1,60 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.render.Framebuffer;
+import dev.gidan.raycastfx.render.RenderTarget;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.IntBuffer;
+
+/**
+ * Render target drawing the frames onto a {@link Canvas}.
+ * <p>
+ * The framebuffer backs a {@link PixelBuffer}, so a finished frame is pushed to the canvas with a single image draw.
+ * The framebuffer follows the size of the canvas.
+ */
+@Slf4j
+public class CanvasRenderTarget implements RenderTarget {
+
+    private final Canvas canvas;
+
+    private Framebuffer framebuffer;
+    private PixelBuffer<IntBuffer> pixelBuffer;
+    private WritableImage image;
+
+    public CanvasRenderTarget(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /**
+     * (Re)creates the framebuffer whenever the canvas size changes.
+     */
+    @Override
+    public Framebuffer acquire() {
+        int width = (int) canvas.getWidth();
+        int height = (int) canvas.getHeight();
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        if (framebuffer == null || framebuffer.getWidth() != width || framebuffer.getHeight() != height) {
+            log.debug("framebuffer resized to {}x{}", width, height);
+            framebuffer = new Framebuffer(width, height);
+            pixelBuffer = new PixelBuffer<>(width, height, IntBuffer.wrap(framebuffer.getPixels()),
+                    PixelFormat.getIntArgbPreInstance());
+            image = new WritableImage(pixelBuffer);
+        }
+        return framebuffer;
+    }
+
+    @Override
+    public void present() {
+        // the whole buffer changed, so mark it dirty as a single region
+        pixelBuffer.updateBuffer(buffer -> null);
+        canvas.getGraphicsContext2D().drawImage(image, 0, 0);
+    }
+
+}
@@ -0,0 +1,121 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.jfr.FrameEvent;
+import dev.gidan.raycastfx.jfr.FrameStageEvent;
+import dev.gidan.raycastfx.util.RollingHistogram;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Collects nanosecond timings of each frame stage, of the whole frame work and of the interval between frames
+ * in rolling histograms, and emits them as JFR events.
+ * <p>
+ * Usage, on every frame:
+ * <pre>{@code
+ * FrameEvent frame = profiler.beginFrame(now);
+ * FrameStageEvent stage = profiler.begin(FrameStage.UPDATE);
+ * update();
+ * profiler.end(FrameStage.UPDATE, stage);
+ * ...
+ * profiler.endFrame(frame);
+ * }</pre>
+ * The events are handed back to the caller rather than kept by the profiler: as locals of the frame that escape
+ * nowhere, their allocation can be eliminated while JFR is not recording them.
+ */
+public class FrameProfiler {
+
+    private static final int WINDOW_FRAMES = 240;
+
+    private final Map<FrameStage, RollingHistogram> stages = new EnumMap<>(FrameStage.class);
+
+    /**
+     * Time spent producing a frame, from the first to the last stage
+     */
+    @Getter
+    private final RollingHistogram frame = new RollingHistogram(WINDOW_FRAMES);
+
+    /**
+     * Time between the start of two consecutive frames
+     */
+    @Getter
+    private final RollingHistogram interval = new RollingHistogram(WINDOW_FRAMES);
+
+    private final long[] stageStarts = new long[FrameStage.values().length];
+
+    private long frameStart;
+    private long previousFrameStart;
+    private long lastInterval;
+
+    public FrameProfiler() {
+        for (FrameStage stage : FrameStage.values()) {
+            stages.put(stage, new RollingHistogram(WINDOW_FRAMES));
+        }
+    }
+
+    /**
+     * @param nowInNanos time of the frame as given by the animation timer
+     * @return the event of the frame, to be passed to {@link #endFrame(FrameEvent)}
+     */
+    public FrameEvent beginFrame(long nowInNanos) {
+        lastInterval = previousFrameStart != 0 ? nowInNanos - previousFrameStart : 0;
+        if (previousFrameStart != 0) {
+            interval.record(lastInterval);
+        }
+        previousFrameStart = nowInNanos;
+
+        FrameEvent event = new FrameEvent();
+        event.begin();
+        frameStart = System.nanoTime();
+        return event;
+    }
+
+    /**
+     * @return the event of the stage, to be passed to {@link #end(FrameStage, FrameStageEvent)}
+     */
+    public FrameStageEvent begin(FrameStage stage) {
+        FrameStageEvent event = new FrameStageEvent();
+        event.begin();
+        stageStarts[stage.ordinal()] = System.nanoTime();
+        return event;
+    }
+
+    public void end(FrameStage stage, FrameStageEvent event) {
+        stages.get(stage).record(System.nanoTime() - stageStarts[stage.ordinal()]);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage.getLabel();
+            event.commit();
+        }
+    }
+
+    /**
+     * @return the time spent on the frame
+     */
+    public long endFrame(FrameEvent event) {
+        long frameNanos = System.nanoTime() - frameStart;
+        frame.record(frameNanos);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.interval = lastInterval;
+            event.commit();
+        }
+        return frameNanos;
+    }
+
+    public RollingHistogram get(FrameStage stage) {
+        return stages.get(stage);
+    }
+
+    /**
+     * @return frames per second, averaged over the last frames
+     */
+    public int fps() {
+        double meanInterval = interval.mean();
+        return meanInterval > 0 ? (int) Math.round(1_000_000_000 / meanInterval) : 0;
+    }
+
+}
@@ -0,0 +1,16 @@
+package dev.gidan.raycastfx;
+
+/**
+ * Draws the first person view of the world on every frame.
+ */
+public interface FrameRenderer extends AutoCloseable {
+
+    void update(double deltaTimeMillis);
+
+    /**
+     * Stops the threads casting the rays. The renderer cannot draw anymore.
+     */
+    @Override
+    void close();
+
+}
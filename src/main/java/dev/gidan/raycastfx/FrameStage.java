@@ -0,0 +1,20 @@
+package dev.gidan.raycastfx;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Steps performed on every frame by the {@link GameController} animation timer.
+ */
+@RequiredArgsConstructor
+public enum FrameStage {
+
+    UPDATE("update"),
+    CLEAR("clear"),
+    RENDER("render"),
+    MINIMAP("minimap");
+
+    @Getter
+    private final String label;
+
+}
@@ -0,0 +1,62 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.prefabs.Player;
+import dev.gidan.raycastfx.render.Framebuffer;
+import dev.gidan.raycastfx.render.RayBuffer;
+import dev.gidan.raycastfx.render.RenderTarget;
+import dev.gidan.raycastfx.render.SoftwareRenderer;
+import javafx.scene.canvas.Canvas;
+
+/**
+ * Alternative to {@link GameFrameRenderer} that rasterizes the whole frame with the {@link SoftwareRenderer}
+ * instead of issuing one canvas command per wall column.
+ * <p>
+ * The frame is presented through a {@link CanvasRenderTarget} with a single image draw.
+ * By default one ray is cast per pixel column; with fewer columns each ray covers a span of pixel columns.
+ */
+public class FramebufferRenderer implements FrameRenderer {
+
+    private final PlayerView view;
+    private final GameState gameState;
+    private final RenderSettings renderSettings;
+    private final RenderTarget target;
+    private final SoftwareRenderer renderer;
+
+    private double yOffset = 0;
+
+    public FramebufferRenderer(Canvas canvas, GameState gameState, RenderSettings renderSettings) {
+        this.renderSettings = renderSettings;
+        this.view = gameState.getView();
+        this.gameState = gameState;
+        this.target = new CanvasRenderTarget(canvas);
+        this.renderer = new SoftwareRenderer(gameState.getGrid(), Settings.CAST_THREADS,
+                Settings.TEXTURES ? SoftwareRenderer.newTextures() : null,
+                SoftwareRenderer.newSpriteTextures(gameState.getSpriteColors()));
+        renderer.setVisibility(gameState.getVisibility());
+    }
+
+    @Override
+    public void update(double deltaTimeMillis) {
+        Framebuffer framebuffer = target.acquire();
+        if (framebuffer == null) {
+            return;
+        }
+
+        if (view.getStatus() == Player.Status.WALKING) {
+            yOffset = SoftwareRenderer.walkOffset(view.getWalkDistance());
+        }
+
+        RayBuffer rays = renderer.render(framebuffer, view.getX(), view.getY(), view.getRotationX(), view.getRotationY(),
+                renderSettings.columnsFor(framebuffer.getWidth()), renderSettings.getFovAngle(), yOffset,
+                gameState.getSprites());
+        target.present();
+
+        gameState.setRays(rays);
+    }
+
+    @Override
+    public void close() {
+        renderer.close();
+    }
+
+}
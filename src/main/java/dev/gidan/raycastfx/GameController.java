@@ -1,7 +1,9 @@
 package dev.gidan.raycastfx;
 
+import dev.gidan.raycastfx.jfr.FrameEvent;
+import dev.gidan.raycastfx.jfr.FrameStageEvent;
+import dev.gidan.raycastfx.render.ResolutionController;
 import dev.gidan.raycastfx.util.Delta;
-import dev.gidan.raycastfx.util.FPSCount;
 import javafx.animation.AnimationTimer;
 import javafx.fxml.FXML;
 import javafx.scene.canvas.Canvas;
@@ -9,53 +11,148 @@ import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+
 @Slf4j
 public class GameController {
 
+    private static final int MIN_ADAPTIVE_COLUMNS = 40;
+
     @FXML
     public Canvas canvas;
 
+    private GameState gameState;
+    private Simulation simulation;
+    private FrameRenderer frameRenderer;
+    private AnimationTimer timer;
+
     @FXML
     public void initialize() {
         final GameState gameState = new GameState();
+        final Simulation simulation = newSimulation(gameState);
+        this.gameState = gameState;
+        this.simulation = simulation;
 
         final MiniMap miniMap = new MiniMap(canvas, gameState);
-        final GameFrameRenderer gameFrameRenderer = new GameFrameRenderer(canvas, gameState);
+        final RenderSettings renderSettings = new RenderSettings();
+        final FrameRenderer gameFrameRenderer = Settings.FRAMEBUFFER_RENDERER
+                ? new FramebufferRenderer(canvas, gameState, renderSettings)
+                : new GameFrameRenderer(canvas, gameState, renderSettings);
+        this.frameRenderer = gameFrameRenderer;
+        final ResolutionController resolutionController = Settings.FRAME_BUDGET_MILLIS > 0
+                ? new ResolutionController(Settings.FRAME_BUDGET_MILLIS, MIN_ADAPTIVE_COLUMNS)
+                : null;
+
+        final FrameProfiler profiler = new FrameProfiler();
+        final StatsOverlay statsOverlay = new StatsOverlay(canvas, profiler);
 
         final GraphicsContext gc = canvas.getGraphicsContext2D();
 
         // Start the animation timer
-        AnimationTimer timer = new AnimationTimer() {
-            private final FPSCount fpsCount = new FPSCount();
+        timer = new AnimationTimer() {
             private final Delta frameTime = new Delta();
+            private final HudLine fpsLine = new HudLine(Fonts.SMALL_BOLD, Color.YELLOW, 1);
 
             @Override
             public void handle(long nowInNano) {
+                FrameEvent frameEvent = profiler.beginFrame(nowInNano);
                 double delta = frameTime.seconds(nowInNano);
-                gameState.update(delta);
+
+                FrameStageEvent updateEvent = profiler.begin(FrameStage.UPDATE);
+                simulation.interpolate(gameState.getView(), gameState.getSprites(), System.nanoTime());
+                profiler.end(FrameStage.UPDATE, updateEvent);
 
                 // Clear the canvas
+                FrameStageEvent clearEvent = profiler.begin(FrameStage.CLEAR);
                 clearFrame();
+                profiler.end(FrameStage.CLEAR, clearEvent);
 
+                FrameStageEvent renderEvent = profiler.begin(FrameStage.RENDER);
                 gameFrameRenderer.update(delta);
+                profiler.end(FrameStage.RENDER, renderEvent);
+
+                FrameStageEvent minimapEvent = profiler.begin(FrameStage.MINIMAP);
                 miniMap.update(delta);
-                drawFrameCount(delta);
+                profiler.end(FrameStage.MINIMAP, minimapEvent);
+
+                long frameNanos = profiler.endFrame(frameEvent);
+                drawFrameCount();
+                statsOverlay.update();
+
+                if (resolutionController != null) {
+                    adaptResolution(frameNanos);
+                }
+            }
+
+            private void adaptResolution(long frameNanos) {
+                int maxColumns = (int) canvas.getWidth();
+                int columns = renderSettings.columnsFor(maxColumns);
+                renderSettings.setColumns(resolutionController.update(frameNanos, columns, maxColumns));
             }
 
             private void clearFrame() {
                 gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
             }
 
-            private void drawFrameCount(final double delta) {
-                gc.setFill(Color.YELLOW);
-                gc.setFont(Fonts.SMALL_BOLD);
-                int fps = fpsCount.frame(delta);
-                gc.fillText(String.valueOf(fps), 20, canvas.getHeight() - 20);
+            private void drawFrameCount() {
+                int fps = profiler.fps();
+                if (fpsLine.value(0, fps).isDirty()) {
+                    fpsLine.edit().append(fps);
+                }
+                fpsLine.draw(gc, 20, canvas.getHeight() - 20);
             }
 
         };
+        simulation.start();
         timer.start();
     }
 
+    /**
+     * Stops the render loop, its cast threads and the simulation, then releases the world. Called on the JavaFX
+     * thread.
+     */
+    public void shutdown() {
+        timer.stop();
+        frameRenderer.close();
+        simulation.stop();
+        gameState.close();
+    }
+
+    /**
+     * Creates the simulation, fed with the keyboard or with the replayed recording, and records its input if asked to.
+     */
+    private static Simulation newSimulation(GameState gameState) {
+        int tickRate = Settings.TICK_RATE;
+        Supplier<InputSnapshot> input = Input.getInstance()::snapshot;
+
+        if (!Settings.REPLAY_FILE.isBlank()) {
+            try {
+                InputRecording replay = InputRecording.read(Path.of(Settings.REPLAY_FILE));
+                log.info("replaying {} ticks from {}", replay.getSize(), Settings.REPLAY_FILE);
+                tickRate = replay.getTickRate();
+                input = replay.replay();
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not read input recording " + Settings.REPLAY_FILE, e);
+            }
+        }
+
+        if (!Settings.RECORD_FILE.isBlank()) {
+            InputRecording recording = new InputRecording(tickRate);
+            input = recording.record(input);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    recording.write(Path.of(Settings.RECORD_FILE));
+                    log.info("{} ticks of input recorded to {}", recording.getSize(), Settings.RECORD_FILE);
+                } catch (IOException e) {
+                    log.error("could not save the input recording to {}", Settings.RECORD_FILE, e);
+                }
+            }, "input-recording"));
+        }
+        return new Simulation(gameState, tickRate, input);
+    }
+
 
 }
\ No newline at end of file
@@ -1,96 +1,184 @@
 package dev.gidan.raycastfx;
 
+import dev.gidan.raycastfx.entity.CollisionSystem;
+import dev.gidan.raycastfx.entity.EntityStore;
+import dev.gidan.raycastfx.entity.EntitySystem;
+import dev.gidan.raycastfx.entity.MovementSystem;
+import dev.gidan.raycastfx.jfr.WorldUpdateEvent;
 import dev.gidan.raycastfx.prefabs.Player;
-import dev.gidan.raycastfx.prefabs.Wall;
-import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.render.RayBuffer;
+import dev.gidan.raycastfx.render.Sprites;
 import dev.gidan.raycastfx.util.Vec2D;
-import javafx.geometry.Point2D;
-import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
-import javafx.scene.paint.Color;
+import dev.gidan.raycastfx.world.ChunkedWorld;
+import dev.gidan.raycastfx.world.MapData;
+import dev.gidan.raycastfx.world.MapLoader;
+import dev.gidan.raycastfx.world.PotentiallyVisibleSet;
+import dev.gidan.raycastfx.world.WorldGrid;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.*;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.BiFunction;
+import java.util.ArrayList;
+import java.util.List;
 
-public class GameState {
+public class GameState implements AutoCloseable {
+
+    private static final String MAP = "/map.png";
 
     @Getter
     private final Player player;
 
+    /**
+     * Every entity of the world, the player included, updated by the simulation thread
+     */
+    @Getter
+    private final EntityStore entities = new EntityStore();
+
+    private final MovementSystem movement;
+    private final CollisionSystem collision;
+    private final List<EntitySystem> systems;
+
+    /**
+     * Cell index of the walls, used for every point-in-wall test performed by ray casting and collisions.
+     */
+    @Getter
+    private final WorldGrid grid;
+
+    /**
+     * Player state interpolated for the frame being rendered
+     */
+    @Getter
+    private final PlayerView view = new PlayerView();
+
+    /**
+     * Entities drawn as sprites, interpolated for the frame being rendered
+     */
+    @Getter
+    private final Sprites sprites = new Sprites();
+
+    /**
+     * Color of every sprite texture, as 0xRRGGBB, in texture order
+     */
     @Getter
-    private final Set<Wall> walls;
+    private final List<Integer> spriteColors = new ArrayList<>();
 
     @Getter
     @Setter
-    private List<Ray> rays;
+    private RayBuffer rays;
+
+    /**
+     * Classpath location of the map image, null if the state was built from map data
+     */
+    private final String mapResource;
+
+    private PotentiallyVisibleSet visibility;
+    private boolean visibilityLoaded;
 
     public GameState() {
-        player = new Player(loadPlayerInitialPosition());
-        walls = loadWalls();
+        this(loadMap(MAP), MAP);
     }
 
-    public void update(double deltaTimeMillis) {
-        player.update(deltaTimeMillis, nextPosition -> {
-            final Point2D point2D = nextPosition.toPoint2D();
-            return walls.stream().map(Wall::area).noneMatch(wallArea -> wallArea.contains(point2D));
-        });
+    public GameState(MapData map) {
+        this(map, null);
     }
 
-    /**
-     * Reads the initial player position from the external map image.
-     *
-     * @return the player position as Vec2D object
-     */
-    private Vec2D loadPlayerInitialPosition() {
-        AtomicReference<Vec2D> playerInitialPosition = new AtomicReference<>(Player.DEFAULT_POSITION);
-
-        loadMap((color, point) -> {
-            if (color.equals(Color.RED)) {
-                playerInitialPosition.set(point.multiply(MiniMap.GRID_SIZE).add(Vec2D.of(MiniMap.GRID_SIZE).half()));
-                return false;
+    private GameState(MapData map, String mapResource) {
+        this.mapResource = mapResource;
+        grid = map.grid();
+        player = new Player(entities, map.findSpawn(MapData.PLAYER_SPAWN_RGB)
+                .map(GameState::cellCenter)
+                .orElse(Player.DEFAULT_POSITION));
+
+        // every other spawn point holds an entity drawn as a sprite of its color
+        for (MapData.Spawn spawn : map.spawns()) {
+            if (spawn.rgb() != MapData.PLAYER_SPAWN_RGB) {
+                Vec2D position = cellCenter(spawn);
+                int id = entities.create(position.getX(), position.getY(), EntityStore.SPRITE);
+                entities.setSprite(entities.index(id), Sprites.textureIndex(spriteColors, spawn.rgb()), Sprites.SPAWN_SCALE);
             }
-            return true;
-        });
+        }
 
-        return playerInitialPosition.get();
+        movement = new MovementSystem(grid);
+        collision = new CollisionSystem(grid);
+        systems = List.of(movement, collision);
     }
 
     /**
-     * Reads the external map image to load the walls positions.
+     * Loads a map with the storage and the cache directory of the {@link Settings}.
      *
-     * @return a set of Wall instances representing the non-walkable sections of the map.
+     * @param resource absolute classpath location of the map image
      */
-    private Set<Wall> loadWalls() {
-        Set<Wall> walls = new HashSet<>();
+    public static MapData loadMap(String resource) {
+        MapLoader loader = new MapLoader(Settings.cacheDirectory());
+        return Settings.CHUNKED_WORLD
+                ? loader.loadChunked(resource, Settings.CHUNK_CACHE_MB * 1024L * 1024L)
+                : loader.load(resource);
+    }
 
-        loadMap((color, point) -> {
-            if (color.equals(Color.BLACK)) {
-                walls.add(new Wall(point.multiply(MiniMap.GRID_SIZE)));
-            }
-            return true;
-        });
+    /**
+     * Loads the potentially visible sets of a map with the cache directory of the {@link Settings}.
+     *
+     * @param resource absolute classpath location of the map image the grid has been loaded from
+     * @return the sets, null if {@link Settings#PVS} is off
+     */
+    public static PotentiallyVisibleSet loadVisibility(String resource, WorldGrid grid) {
+        return Settings.PVS ? new MapLoader(Settings.cacheDirectory()).loadVisibility(resource, grid) : null;
+    }
 
-        return walls;
+    /**
+     * Loads the sets on the first call rather than with the map: only the renderers drawing sprites read them, and
+     * computing them reads the whole map.
+     *
+     * @return the cells potentially visible from every cell of the map, null if {@link Settings#PVS} is off or the
+     * state was built from map data
+     */
+    public PotentiallyVisibleSet getVisibility() {
+        if (!visibilityLoaded) {
+            visibility = mapResource == null ? null : loadVisibility(mapResource, grid);
+            visibilityLoaded = true;
+        }
+        return visibility;
     }
 
-    private void loadMap(BiFunction<Color, Vec2D, Boolean> pixelCallback) {
-        Image image = new Image(Objects.requireNonNull(getClass().getResource("/map.png")).toExternalForm());
+    /**
+     * @return the world position of the center of the spawn cell
+     */
+    private static Vec2D cellCenter(MapData.Spawn spawn) {
+        return Vec2D.of(spawn.cellX(), spawn.cellY()).multiply(WorldGrid.CELL_SIZE).add(Vec2D.of(WorldGrid.CELL_SIZE).half());
+    }
 
-        PixelReader pixelReader = image.getPixelReader();
-        double width = image.getWidth();
-        double height = image.getHeight();
+    /**
+     * Advances the world by one tick.
+     *
+     * @param input the input of the tick
+     */
+    public void update(double deltaSeconds, InputSnapshot input) {
+        WorldUpdateEvent event = new WorldUpdateEvent();
+        event.begin();
 
-        for (int r = 0; r < height; r++) {
-            for (int c = 0; c < width; c++) {
-                Color color = pixelReader.getColor(c, r);
-                Boolean shouldContinue = pixelCallback.apply(color, Vec2D.of(c, r));
-                if (!shouldContinue) return;
-            }
+        player.applyInput(input);
+        for (EntitySystem system : systems) {
+            system.update(entities, deltaSeconds);
+        }
+        player.afterMove();
+        grid.prefetchAround(WorldGrid.toCell(player.getX()), WorldGrid.toCell(player.getY()));
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.collisionChecks = movement.getCollisionChecks();
+            event.bodyContacts = collision.getContacts();
+            event.commit();
         }
     }
 
+    /**
+     * Releases the storage of the grid when it is a {@link ChunkedWorld}. The world cannot be updated nor rendered
+     * anymore.
+     */
+    @Override
+    public void close() {
+        if (grid instanceof ChunkedWorld world) {
+            world.close();
+        }
+    }
 
 }
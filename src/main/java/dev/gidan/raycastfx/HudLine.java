@@ -0,0 +1,114 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.util.TextFormat;
+import javafx.geometry.Bounds;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+
+/**
+ * A line of HUD text rendered to an image, re-rendered only when the values it displays change.
+ * <p>
+ * Every frame the caller feeds the values shown by the line, rounded to their display precision. Only when one of
+ * them differs from the previous frame is the line dirty: the caller then rewrites the text through {@link #edit()}
+ * and the next {@link #draw} rasterizes it again. Otherwise drawing is a single image blit.
+ * <p>
+ * Must be used on the JavaFX application thread.
+ */
+public class HudLine {
+
+    private static final SnapshotParameters SNAPSHOT_PARAMETERS = new SnapshotParameters();
+
+    static {
+        SNAPSHOT_PARAMETERS.setFill(Color.TRANSPARENT);
+    }
+
+    private final Text text = new Text();
+    private final StringBuilder builder = new StringBuilder();
+    private final long[] values;
+    private boolean dirty = true;
+
+    private WritableImage image;
+    private double offsetX;
+    private double offsetY;
+    private double width;
+    private double height;
+
+    /**
+     * @param valueCount number of values the line displays
+     */
+    public HudLine(Font font, Color color, int valueCount) {
+        text.setFont(font);
+        text.setFill(color);
+        values = new long[valueCount];
+    }
+
+    /**
+     * Sets a value shown by the line, marking the line dirty if it changed.
+     */
+    public HudLine value(int index, long value) {
+        if (values[index] != value) {
+            values[index] = value;
+            dirty = true;
+        }
+        return this;
+    }
+
+    /**
+     * Sets a value shown by the line with the given number of decimals.
+     * Changes below the display precision do not mark the line dirty.
+     */
+    public HudLine value(int index, double value, int decimals) {
+        return value(index, TextFormat.quantize(value, decimals));
+    }
+
+    /**
+     * @return true if the text has to be rewritten before the next draw
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * @return the cleared builder the new text of the line has to be written to
+     */
+    public StringBuilder edit() {
+        builder.setLength(0);
+        return builder;
+    }
+
+    /**
+     * Draws the line with its baseline at the given position, as {@link GraphicsContext#fillText} would.
+     */
+    public void draw(GraphicsContext gc, double x, double y) {
+        if (dirty) {
+            render();
+        }
+        if (width > 0 && height > 0) {
+            gc.drawImage(image, 0, 0, width, height, x + offsetX, y + offsetY, width, height);
+        }
+    }
+
+    private void render() {
+        text.setText(builder.toString());
+        Bounds bounds = text.getBoundsInParent();
+        offsetX = bounds.getMinX();
+        offsetY = bounds.getMinY();
+        width = Math.ceil(bounds.getWidth());
+        height = Math.ceil(bounds.getHeight());
+
+        if (width > 0 && height > 0) {
+            // reuses the previous image when the text still fits in it
+            image = text.snapshot(SNAPSHOT_PARAMETERS, fits(image) ? image : null);
+        }
+        dirty = false;
+    }
+
+    private boolean fits(WritableImage image) {
+        return image != null && image.getWidth() >= width && image.getHeight() >= height;
+    }
+
+}
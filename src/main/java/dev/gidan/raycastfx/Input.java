@@ -9,40 +9,73 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
-import java.util.Map;
-
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Keyboard and mouse state, written by the JavaFX event handlers.
+ * <p>
+ * The simulation does not read the keys directly: it takes an {@link InputSnapshot} of the actions held down once
+ * per tick, which is what makes sessions recordable.
+ */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 @Slf4j
 public class Input {
 
-    private final Map<KeyCode, Integer> states = new HashMap<>();
+    /**
+     * Bitset of the {@link InputSnapshot} actions held down. Written by the JavaFX event handlers, read by the
+     * simulation thread.
+     */
+    private volatile int actions;
+
+    /**
+     * Keys held down, to ignore the repeated key presses of toggles. Only used on the JavaFX application thread.
+     */
+    private final Set<KeyCode> pressedKeys = EnumSet.noneOf(KeyCode.class);
 
+    /**
+     * Whether the frame time statistics overlay is visible. Toggled with F3.
+     */
     @Getter
-    private double mouseX;
+    private boolean showingStats = Settings.STATS_OVERLAY;
+
+    /**
+     * Minimap zoom steps requested since the last poll, positive to zoom in
+     */
+    private int zoomSteps;
+
     @Getter
-    private double mouseY;
+    private volatile double mouseX;
+    @Getter
+    private volatile double mouseY;
 
-    private static Input instance;
+    /**
+     * Created eagerly: the JavaFX thread and the simulation thread both ask for it, and a lazy check could create two
+     */
+    private static final Input INSTANCE = new Input();
 
     public static Input getInstance() {
-        if (instance == null) {
-            instance = new Input();
-        }
-        return instance;
+        return INSTANCE;
     }
 
     public void init(Scene scene) {
         scene.addEventHandler(KeyEvent.KEY_PRESSED, (key) -> {
             KeyCode keyCode = key.getCode();
             log.trace("key pressed: {}", key);
-            states.put(keyCode, 1);
+            if (pressedKeys.add(keyCode)) {
+                if (keyCode == KeyCode.F3) {
+                    showingStats = !showingStats;
+                }
+                zoomSteps += zoomStep(keyCode);
+            }
+            actions |= action(keyCode);
         });
 
         scene.addEventHandler(KeyEvent.KEY_RELEASED, (key) -> {
             KeyCode keyCode = key.getCode();
             log.trace("key released: {}", key);
-            states.put(keyCode, 0);
+            pressedKeys.remove(keyCode);
+            actions &= ~action(keyCode);
         });
 
         scene.setOnMouseMoved(mouseEvent -> {
@@ -53,36 +86,40 @@ public class Input {
         scene.getRoot().requestFocus();
     }
 
-    private boolean isPressed(KeyCode keyCode) {
-        return states.containsKey(keyCode) && states.get(keyCode) == 1;
-    }
-
-    public boolean isMovingForward() {
-        return isPressed(KeyCode.W);
-    }
-
-    public boolean isMovingBackward() {
-        return isPressed(KeyCode.S);
-    }
-
-    public boolean isStrafeRight() {
-        return isPressed(KeyCode.D);
-    }
-
-    public boolean isStrafeLeft() {
-        return isPressed(KeyCode.A);
+    private static int action(KeyCode keyCode) {
+        return switch (keyCode) {
+            case W -> InputSnapshot.FORWARD;
+            case S -> InputSnapshot.BACKWARD;
+            case A -> InputSnapshot.STRAFE_LEFT;
+            case D -> InputSnapshot.STRAFE_RIGHT;
+            case Q -> InputSnapshot.TURN_LEFT;
+            case E -> InputSnapshot.TURN_RIGHT;
+            default -> 0;
+        };
     }
 
-    public boolean isTurningRight() {
-        return isPressed(KeyCode.E);
+    private static int zoomStep(KeyCode keyCode) {
+        return switch (keyCode) {
+            case PLUS, EQUALS, ADD -> 1;
+            case MINUS, SUBTRACT -> -1;
+            default -> 0;
+        };
     }
 
-    public boolean isTurningLeft() {
-        return isPressed(KeyCode.Q);
+    /**
+     * @return the minimap zoom steps requested since the last call, positive to zoom in
+     */
+    public int pollZoomSteps() {
+        int steps = zoomSteps;
+        zoomSteps = 0;
+        return steps;
     }
 
-    public boolean isMoving() {
-        return isMovingBackward() || isMovingForward() || isStrafeRight() || isStrafeLeft();
+    /**
+     * @return the actions held down and the mouse position, for the next simulation tick
+     */
+    public InputSnapshot snapshot() {
+        return new InputSnapshot(actions, (float) mouseX, (float) mouseY);
     }
 
     public Vec2D mouse() {
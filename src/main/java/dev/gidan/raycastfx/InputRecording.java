@@ -0,0 +1,154 @@
+package dev.gidan.raycastfx;
+
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * The input of consecutive simulation ticks, recorded from a session to replay it.
+ * <p>
+ * The simulation only reads its input once per tick and advances by a fixed time step, so replaying the input of
+ * every tick on the same map reproduces the session exactly, whatever the frame rate of the replay.
+ * <p>
+ * File layout, big endian:
+ * <pre>
+ * int   magic "RCIN"
+ * int   format version
+ * int   ticks per second of the recorded simulation
+ * int   tick count, then per tick: int actions, float mouseX, float mouseY
+ * </pre>
+ * Recording and saving may happen on different threads, so both are synchronized.
+ */
+public class InputRecording {
+
+    static final int MAGIC = 0x5243494E;
+    static final int VERSION = 1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Ticks per second of the recorded simulation
+     */
+    @Getter
+    private final int tickRate;
+
+    private int size;
+    private int[] actions = new int[INITIAL_CAPACITY];
+    private float[] mouseX = new float[INITIAL_CAPACITY];
+    private float[] mouseY = new float[INITIAL_CAPACITY];
+
+    public InputRecording(int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("tick rate must be positive");
+        }
+        this.tickRate = tickRate;
+    }
+
+    /**
+     * Appends the input of the next tick.
+     */
+    public synchronized void add(InputSnapshot input) {
+        if (size == actions.length) {
+            actions = Arrays.copyOf(actions, size * 2);
+            mouseX = Arrays.copyOf(mouseX, size * 2);
+            mouseY = Arrays.copyOf(mouseY, size * 2);
+        }
+        actions[size] = input.actions();
+        mouseX[size] = input.mouseX();
+        mouseY[size] = input.mouseY();
+        size++;
+    }
+
+    /**
+     * @return the input of the given tick, counted from the first recorded one
+     */
+    public synchronized InputSnapshot get(int tick) {
+        if (tick < 0 || tick >= size) {
+            throw new IndexOutOfBoundsException("tick " + tick + " of " + size);
+        }
+        return new InputSnapshot(actions[tick], mouseX[tick], mouseY[tick]);
+    }
+
+    /**
+     * @return the number of recorded ticks
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    /**
+     * @return an input source passing on the input of the given source, recording it on the way
+     */
+    public Supplier<InputSnapshot> record(Supplier<InputSnapshot> source) {
+        return () -> {
+            InputSnapshot input = source.get();
+            add(input);
+            return input;
+        };
+    }
+
+    /**
+     * @return an input source returning the recorded input tick after tick, then {@link InputSnapshot#NONE} once the
+     * recording is over
+     */
+    public Supplier<InputSnapshot> replay() {
+        int[] next = {0};
+        return () -> next[0] < getSize() ? get(next[0]++) : InputSnapshot.NONE;
+    }
+
+    public synchronized void write(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(tickRate);
+            out.writeInt(size);
+            for (int tick = 0; tick < size; tick++) {
+                out.writeInt(actions[tick]);
+                out.writeFloat(mouseX[tick]);
+                out.writeFloat(mouseY[tick]);
+            }
+        }
+    }
+
+    /**
+     * Reads a recording written by {@link #write}.
+     *
+     * @throws IOException if the file cannot be read, is not a recording or has another format version
+     */
+    public static InputRecording read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not an input recording");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("unsupported input recording version " + version);
+            }
+            int tickRate = in.readInt();
+            int ticks = in.readInt();
+            if (tickRate <= 0 || ticks < 0) {
+                throw new IOException("invalid input recording header");
+            }
+
+            InputRecording recording = new InputRecording(tickRate);
+            for (int tick = 0; tick < ticks; tick++) {
+                recording.add(new InputSnapshot(in.readInt(), in.readFloat(), in.readFloat()));
+            }
+            return recording;
+        } catch (EOFException e) {
+            throw new IOException("truncated input recording " + file, e);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package dev.gidan.raycastfx;
+
+/**
+ * State of the input for one simulation tick: the actions held down, as a bitset, and the mouse position.
+ *
+ * @param actions bitset of the actions held down, e.g. {@link #FORWARD}
+ * @param mouseX  x of the mouse in scene coordinates
+ * @param mouseY  y of the mouse in scene coordinates
+ */
+public record InputSnapshot(int actions, float mouseX, float mouseY) {
+
+    public static final int FORWARD = 1;
+    public static final int BACKWARD = 1 << 1;
+    public static final int STRAFE_LEFT = 1 << 2;
+    public static final int STRAFE_RIGHT = 1 << 3;
+    public static final int TURN_LEFT = 1 << 4;
+    public static final int TURN_RIGHT = 1 << 5;
+
+    /**
+     * Nothing held down
+     */
+    public static final InputSnapshot NONE = new InputSnapshot(0, 0, 0);
+
+    public boolean isPressed(int action) {
+        return (actions & action) != 0;
+    }
+
+    public boolean isMovingForward() {
+        return isPressed(FORWARD);
+    }
+
+    public boolean isMovingBackward() {
+        return isPressed(BACKWARD);
+    }
+
+    public boolean isStrafeLeft() {
+        return isPressed(STRAFE_LEFT);
+    }
+
+    public boolean isStrafeRight() {
+        return isPressed(STRAFE_RIGHT);
+    }
+
+    public boolean isTurningLeft() {
+        return isPressed(TURN_LEFT);
+    }
+
+    public boolean isTurningRight() {
+        return isPressed(TURN_RIGHT);
+    }
+
+}
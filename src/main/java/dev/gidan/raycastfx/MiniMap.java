@@ -1,17 +1,13 @@
 package dev.gidan.raycastfx;
 
-import dev.gidan.raycastfx.prefabs.Player;
-import dev.gidan.raycastfx.prefabs.Wall;
+import dev.gidan.raycastfx.render.RayBuffer;
 import dev.gidan.raycastfx.util.*;
-import javafx.geometry.Rectangle2D;
+import dev.gidan.raycastfx.world.WorldGrid;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.List;
-import java.util.Set;
-
 /**
  * This class is responsible to draw the minimap somewhere on the canvas.
  * It decides the position, the scale and the appearance of the minimap.
@@ -26,64 +22,93 @@ public class MiniMap {
     private static final int INITIAL_MINIMAP_PLANE_HEIGHT = 120;
     private static final int MINIMAP_PROJECTION_X = 20;
     private static final int MINIMAP_PROJECTION_Y = 20;
-    public static final int GRID_SIZE = 20;
-    public static final double EPSILON = 0.03;
+    public static final int GRID_SIZE = WorldGrid.CELL_SIZE;
 
-    private final int scale = 1;
     private final GraphicsContext gc;
-    private final Player player;
+    private final PlayerView player;
     private final GameState gameState;
+    private final MiniMapTiles tiles;
+
+    /**
+     * Index of the current zoom level in {@link MiniMapTiles#ZOOM_LEVELS}
+     */
+    private int zoomLevel = MiniMapTiles.DEFAULT_LEVEL;
+    private double scale = MiniMapTiles.ZOOM_LEVELS[zoomLevel];
 
-    private final int minimapWidth = INITIAL_MINIMAP_PLANE_WIDTH * scale;
-    private final int minimapHeight = INITIAL_MINIMAP_PLANE_HEIGHT * scale;
-    private final int gridCellSize = GRID_SIZE * scale;
-    private boolean drawGrid = true;
+    private final int minimapWidth = INITIAL_MINIMAP_PLANE_WIDTH;
+    private final int minimapHeight = INITIAL_MINIMAP_PLANE_HEIGHT;
+    private final boolean drawGrid = true;
 
     int minimapPlaneHalfWidth = minimapWidth / 2;
     int minimapPlaneHalfHeight = minimapHeight / 2;
     Vec2D minimapSize = Vec2D.of(minimapWidth, minimapHeight);
     Vec2D minimapOffset = Vec2D.of(MINIMAP_PROJECTION_X, MINIMAP_PROJECTION_Y);
 
+    /**
+     * Scratch vectors reused on every frame
+     */
+    private final MutableVec2D sceneScratch = new MutableVec2D();
+    private final MutableVec2D worldScratch = new MutableVec2D();
+
+    /**
+     * Debug text below the minimap, re-rendered only when the displayed values change
+     */
+    private final HudLine mouseSceneLine = new HudLine(Fonts.TINY_NORMAL, Color.WHITE, 2);
+    private final HudLine mouseWorldLine = new HudLine(Fonts.TINY_NORMAL, Color.WHITE, 2);
+    private final HudLine playerWorldLine = new HudLine(Fonts.TINY_NORMAL, Color.WHITE, 2);
+    private final HudLine playerSceneLine = new HudLine(Fonts.TINY_NORMAL, Color.WHITE, 2);
+    private final HudLine rotationLine = new HudLine(Fonts.TINY_NORMAL, Color.WHITE, 2);
+
     public MiniMap(Canvas canvas, GameState gameState) {
         gc = canvas.getGraphicsContext2D();
-        this.player = gameState.getPlayer();
+        this.player = gameState.getView();
         this.gameState = gameState;
+        this.tiles = new MiniMapTiles(gameState.getGrid(), drawGrid);
     }
 
     public void update(double deltaTimeMillis) {
+        updateZoom();
         drawMiniMapBackground();
         drawMouseCoordinates();
         drawPlayerPosition();
-        drawWalls();
+        drawStaticLayer();
         drawRays(gameState.getRays());
-        drawGrid();
         drawFaceDirection();
         drawCenterPoint();
         drawPlayerRotationAngle();
     }
 
-    private void drawRays(List<Ray> rays) {
-        rays.forEach(ray -> {
-            Vec2D originScene = worldToScene(ray.origin());
-            Vec2D collisionScene = worldToScene(ray.collisionPoint());
-            Vec2D collisionSceneScaled = originScene.add(originScene.subtract(collisionScene).multiply(-1).multiply(scale));
-
-            double collisionX;
-            double collisionY;
-
-            Rectangle2D miniMapSceneBounds = getMiniMapSceneBounds();
-            if (ray.status() == Ray.Status.INFINITE || !Rectangle2DUtil.containsPoint(miniMapSceneBounds, collisionSceneScaled)) {
-                Vec2D intersectionWithMiniMapEdges = GridUtil.findCollisionPointAlongCellBorders(originScene, miniMapSceneBounds, ray);
-                collisionX = intersectionWithMiniMapEdges.getX();
-                collisionY = intersectionWithMiniMapEdges.getY();
-            } else {
-                collisionX = collisionSceneScaled.getX();
-                collisionY = collisionSceneScaled.getY();
+    private void drawRays(RayBuffer rays) {
+        if (rays == null) {
+            return;
+        }
+
+        double minX = MINIMAP_PROJECTION_X;
+        double minY = MINIMAP_PROJECTION_Y;
+        double maxX = MINIMAP_PROJECTION_X + minimapWidth;
+        double maxY = MINIMAP_PROJECTION_Y + minimapHeight;
+
+        // every ray starts from the player, which is always at the center of the minimap
+        double originX = (rays.getOriginX() - player.getX()) * scale + minimapPlaneHalfWidth + MINIMAP_PROJECTION_X;
+        double originY = (rays.getOriginY() - player.getY()) * scale + minimapPlaneHalfHeight + MINIMAP_PROJECTION_Y;
+
+        for (int ray = 0; ray < rays.getSize(); ray++) {
+            double directionX = rays.directionX(ray);
+            double directionY = rays.directionY(ray);
+            double collisionX = originX + (rays.hitX(ray) - rays.getOriginX()) * scale;
+            double collisionY = originY + (rays.hitY(ray) - rays.getOriginY()) * scale;
+
+            boolean insideMiniMap = collisionX >= minX && collisionX <= maxX && collisionY >= minY && collisionY <= maxY;
+            if (rays.status(ray) == Ray.Status.INFINITE || !insideMiniMap) {
+                double distanceToEdge = distanceToEdge(originX, directionX, minX, maxX);
+                distanceToEdge = Math.min(distanceToEdge, distanceToEdge(originY, directionY, minY, maxY));
+                collisionX = originX + directionX * distanceToEdge;
+                collisionY = originY + directionY * distanceToEdge;
             }
 
             gc.setStroke(Color.RED);
             gc.setLineWidth(2);
-            gc.strokeLine(originScene.getX(), originScene.getY(),
+            gc.strokeLine(originX, originY,
                     collisionX,
                     collisionY
             );
@@ -91,8 +116,21 @@ public class MiniMap {
 
             gc.setFill(Color.CYAN);
             gc.fillOval((collisionX - 2), (collisionY - 2), 4, 4);
-        });
+        }
+
+    }
 
+    /**
+     * @return the distance along one axis from a point inside [min, max] to the edge the direction points to
+     */
+    private static double distanceToEdge(double origin, double direction, double min, double max) {
+        if (direction > 0) {
+            return (max - origin) / direction;
+        }
+        if (direction < 0) {
+            return (min - origin) / direction;
+        }
+        return Double.POSITIVE_INFINITY;
     }
 
     private void drawMiniMapBackground() {
@@ -105,18 +143,17 @@ public class MiniMap {
 
         // the player is always centered in the minimap.
         // So x, y can just be the center of the minimap plus the minimap offset.
-        Vec2D origin = minimapSize.multiply(0.5).add(minimapOffset);
-        Vec2D direction = origin.add(player.rotation.multiply(20));
-
+        double originX = minimapPlaneHalfWidth + MINIMAP_PROJECTION_X;
+        double originY = minimapPlaneHalfHeight + MINIMAP_PROJECTION_Y;
         gc.setLineWidth(2);
-        gc.strokeLine(origin.getX(), origin.getY(), direction.getX(), direction.getY());
+        gc.strokeLine(originX, originY, originX + player.getRotationX() * 20, originY + player.getRotationY() * 20);
         gc.setLineWidth(1);
     }
 
     private void drawCenterPoint() {
         gc.setFill(Color.RED);
 
-        int centerPointRadius = 4 * scale;
+        int centerPointRadius = 4;
         double x = MINIMAP_PROJECTION_X + minimapPlaneHalfWidth - centerPointRadius;
         double y = MINIMAP_PROJECTION_Y + minimapPlaneHalfHeight - centerPointRadius;
         double diameter = centerPointRadius * 2;
@@ -124,130 +161,84 @@ public class MiniMap {
         gc.fillOval(x, y, diameter, diameter);
     }
 
-    private void drawGrid() {
-        if (drawGrid) {
-            gc.setLineWidth(1);
-            gc.setStroke(GRID_LINE_COLOR);
-
-            Vec2D scaledPosition = player.position.multiply(scale);
-            double posX = scaledPosition.getX();
-            double posY = scaledPosition.getY();
-
-            for (int x = 0; x < minimapWidth; x++) {
-                int i = (int) posX - minimapPlaneHalfWidth + x;
-                if (Math.abs(i) % gridCellSize == 0) {
-                    gc.strokeLine(x + MINIMAP_PROJECTION_X,
-                            MINIMAP_PROJECTION_Y,
-                            x + MINIMAP_PROJECTION_X,
-                            minimapHeight + MINIMAP_PROJECTION_Y);
-                }
-            }
-
-            for (int y = 0; y < minimapHeight; y++) {
-                int i = (int) posY - minimapPlaneHalfHeight + y;
-                if (Math.abs(i) % gridCellSize == 0) {
-                    gc.strokeLine(MINIMAP_PROJECTION_X,
-                            y + MINIMAP_PROJECTION_Y,
-                            MINIMAP_PROJECTION_X + minimapWidth,
-                            y + MINIMAP_PROJECTION_Y);
-                }
-            }
+    private void updateZoom() {
+        int steps = Input.getInstance().pollZoomSteps();
+        if (steps != 0) {
+            zoomLevel = Math.max(0, Math.min(MiniMapTiles.ZOOM_LEVELS.length - 1, zoomLevel + steps));
+            scale = MiniMapTiles.ZOOM_LEVELS[zoomLevel];
+            log.debug("minimap zoom {}", scale);
         }
     }
 
-    private Vec2D calculateWorldMousePosition() {
-        return sceneToWorld(Input.getInstance().mouse());
+    /**
+     * Blits the walls and the grid, centered on the player, from the pre-rendered tiles of the current zoom level.
+     */
+    private void drawStaticLayer() {
+        int minX = (int) Math.floor(player.getX() * scale) - minimapPlaneHalfWidth;
+        int minY = (int) Math.floor(player.getY() * scale) - minimapPlaneHalfHeight;
+        tiles.draw(gc, zoomLevel, minX, minY, minimapWidth, minimapHeight, MINIMAP_PROJECTION_X, MINIMAP_PROJECTION_Y);
     }
 
     private void drawMouseCoordinates() {
-        int mouseX = (int) Input.getInstance().getMouseX();
-        int mouseY = (int) Input.getInstance().getMouseY();
+        double sceneMouseX = Input.getInstance().getMouseX();
+        double sceneMouseY = Input.getInstance().getMouseY();
+        int mouseX = (int) sceneMouseX;
+        int mouseY = (int) sceneMouseY;
 
-        Vec2D worldMousePosition = calculateWorldMousePosition();
+        MutableVec2D worldMousePosition = sceneToWorld(sceneMouseX, sceneMouseY, worldScratch);
         int worldX = (int) worldMousePosition.getX();
         int worldY = (int) worldMousePosition.getY();
 
-        gc.setFill(Color.WHITE);
-        gc.setFont(Fonts.TINY_NORMAL);
-        gc.fillText(String.format("mouse scene %d - %d", mouseX, mouseY),
-                MINIMAP_PROJECTION_X,
-                MINIMAP_PROJECTION_Y + minimapHeight + 15
-        );
-        gc.fillText(String.format("mouse world %d - %d", worldX, worldY),
-                MINIMAP_PROJECTION_X,
-                MINIMAP_PROJECTION_Y + minimapHeight + 30
-        );
-    }
-
-    private void drawPlayerPosition() {
-        Vec2D playerPosition = player.getPosition();
-        Vec2D playerScenePosition = worldToScene(playerPosition);
-        gc.setFill(Color.WHITE);
-        gc.setFont(Fonts.TINY_NORMAL);
-        gc.fillText(String.format("player world x:%.02f y:%.02f", playerPosition.getX(), playerPosition.getY()),
-                MINIMAP_PROJECTION_X,
-                MINIMAP_PROJECTION_Y + minimapHeight + 45
-        );
-        gc.fillText(String.format("player scene x:%.02f y:%.02f", playerScenePosition.getX(), playerScenePosition.getY()),
-                MINIMAP_PROJECTION_X,
-                MINIMAP_PROJECTION_Y + minimapHeight + 60
-        );
-    }
+        if (mouseSceneLine.value(0, mouseX).value(1, mouseY).isDirty()) {
+            mouseSceneLine.edit().append("mouse scene ").append(mouseX).append(" - ").append(mouseY);
+        }
+        mouseSceneLine.draw(gc, MINIMAP_PROJECTION_X, MINIMAP_PROJECTION_Y + minimapHeight + 15);
 
-    private void drawPlayerRotationAngle() {
-        Vec2D playerRotation = player.rotation;
-        double rotationAngle = playerRotation.angle();
-        gc.setFill(Color.WHITE);
-        gc.setFont(Fonts.TINY_NORMAL);
-        gc.fillText(String.format("player rot angle rad:%.02f deg:%.02f", rotationAngle, Math.toDegrees(rotationAngle)),
-                MINIMAP_PROJECTION_X,
-                MINIMAP_PROJECTION_Y + minimapHeight + 75
-        );
+        if (mouseWorldLine.value(0, worldX).value(1, worldY).isDirty()) {
+            mouseWorldLine.edit().append("mouse world ").append(worldX).append(" - ").append(worldY);
+        }
+        mouseWorldLine.draw(gc, MINIMAP_PROJECTION_X, MINIMAP_PROJECTION_Y + minimapHeight + 30);
     }
 
-    private Rectangle2D getMiniMapWorldBounds() {
-        Vec2D scaledPosition = player.position.multiply(scale);
-        int minWorldX = (int) (scaledPosition.getX()) - minimapPlaneHalfWidth;
-        int minWorldY = (int) (scaledPosition.getY()) - minimapPlaneHalfHeight;
-        return new Rectangle2D(minWorldX, minWorldY, minimapWidth, minimapHeight);
+    private void drawPlayerPosition() {
+        MutableVec2D playerScenePosition = worldToScene(player.getX(), player.getY(), sceneScratch);
+        drawCoordinates(playerWorldLine, "player world", player.getX(), player.getY(), 45);
+        drawCoordinates(playerSceneLine, "player scene", playerScenePosition.getX(), playerScenePosition.getY(), 60);
     }
 
-    private Rectangle2D getMiniMapSceneBounds() {
-        return new Rectangle2D(MINIMAP_PROJECTION_X, MINIMAP_PROJECTION_Y, minimapWidth, minimapHeight);
+    private void drawCoordinates(HudLine line, String label, double x, double y, int offsetY) {
+        if (line.value(0, x, 2).value(1, y, 2).isDirty()) {
+            StringBuilder text = line.edit().append(label).append(" x:");
+            TextFormat.appendFixed(text, x, 2).append(" y:");
+            TextFormat.appendFixed(text, y, 2);
+        }
+        line.draw(gc, MINIMAP_PROJECTION_X, MINIMAP_PROJECTION_Y + minimapHeight + offsetY);
     }
 
-    private void drawWalls() {
-        Rectangle2D miniMapArea = getMiniMapWorldBounds();
-        Vec2D scaledPosition = player.position.multiply(scale);
-        gc.setFill(Color.DARKRED);
-        Set<Wall> walls = gameState.getWalls();
-        walls.forEach(wall -> {
-            double worldX = wall.position.getX() * scale;
-            double worldY = wall.position.getY() * scale;
-            Rectangle2D wallArea = new Rectangle2D(worldX, worldY, gridCellSize, gridCellSize);
-            Rectangle2D intersection = Rectangle2DUtil.getIntersection(miniMapArea, wallArea);
-            if (intersection != null) {
-                gc.fillRect(
-                        intersection.getMinX() + minimapPlaneHalfWidth + MINIMAP_PROJECTION_X - scaledPosition.getX(),
-                        intersection.getMinY() + minimapPlaneHalfHeight + MINIMAP_PROJECTION_Y - scaledPosition.getY(),
-                        intersection.getWidth(),
-                        intersection.getHeight()
-                );
-            }
-        });
+    private void drawPlayerRotationAngle() {
+        double rotationAngle = Math.atan2(player.getRotationY(), player.getRotationX());
+        double rotationDegrees = Math.toDegrees(rotationAngle);
+        if (rotationLine.value(0, rotationAngle, 2).value(1, rotationDegrees, 2).isDirty()) {
+            StringBuilder text = rotationLine.edit().append("player rot angle rad:");
+            TextFormat.appendFixed(text, rotationAngle, 2).append(" deg:");
+            TextFormat.appendFixed(text, rotationDegrees, 2);
+        }
+        rotationLine.draw(gc, MINIMAP_PROJECTION_X, MINIMAP_PROJECTION_Y + minimapHeight + 75);
     }
 
-    private Vec2D worldToScene(Vec2D world) {
-        return world.subtract(player.position)
-                .add(minimapSize.multiply(0.5))
+    private MutableVec2D worldToScene(double worldX, double worldY, MutableVec2D scene) {
+        return scene.set(worldX, worldY)
+                .subtract(player.getX(), player.getY())
+                .multiply(scale)
+                .add(minimapSize.getX() * 0.5, minimapSize.getY() * 0.5)
                 .add(minimapOffset);
     }
 
-    private Vec2D sceneToWorld(Vec2D scene) {
-        Vec2D position = player.position;
-        return Vec2D.of(position.getX(), position.getY())
-                .add(scene)
-                .subtract(minimapSize.multiply(0.5).add(minimapOffset));
+    private MutableVec2D sceneToWorld(double sceneX, double sceneY, MutableVec2D world) {
+        return world.set(sceneX, sceneY)
+                .subtract(minimapSize.getX() * 0.5 + minimapOffset.getX(), minimapSize.getY() * 0.5 + minimapOffset.getY())
+                .multiply(1 / scale)
+                .add(player.getX(), player.getY());
     }
 
 
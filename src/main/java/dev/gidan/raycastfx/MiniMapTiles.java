@@ -0,0 +1,179 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.util.ColorUtil;
+import dev.gidan.raycastfx.world.WorldGrid;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pyramid of pre-rendered minimap tiles, one level per zoom factor.
+ * <p>
+ * The static layer of the minimap (walls and grid lines) is rasterized once per tile, the first time the tile becomes
+ * visible, and then drawn by blitting the visible part of a handful of tiles. The cost of a frame depends on the size
+ * of the minimap only, not on the size of the map.
+ * <p>
+ * The tile size is a multiple of the cell size at every zoom level, so cells never straddle tiles and all the tiles
+ * outside the map share a single image holding the grid lines only.
+ */
+@Slf4j
+public class MiniMapTiles {
+
+    /**
+     * Screen pixels per world unit at every zoom level
+     */
+    public static final double[] ZOOM_LEVELS = {0.5, 1, 2, 4};
+
+    /**
+     * Zoom level used at startup, 1:1
+     */
+    public static final int DEFAULT_LEVEL = 1;
+
+    /**
+     * Side of a tile in pixels, a multiple of the cell size at every zoom level
+     */
+    static final int TILE_SIZE = 240;
+
+    /**
+     * Tiles kept in memory across all levels. The minimap shows at most four tiles at a time.
+     */
+    static final int MAX_CACHED_TILES = 64;
+
+    private static final int TRANSPARENT = 0;
+    private static final int WALL_COLOR = ColorUtil.toArgb(Color.DARKRED);
+    private static final int GRID_COLOR = ColorUtil.toArgb(MiniMap.GRID_LINE_COLOR);
+
+    private final WorldGrid grid;
+    private final boolean drawGrid;
+
+    private final Map<Long, WritableImage> tiles = new LinkedHashMap<>(MAX_CACHED_TILES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, WritableImage> eldest) {
+            return size() > MAX_CACHED_TILES;
+        }
+    };
+    private final WritableImage[] emptyTiles = new WritableImage[ZOOM_LEVELS.length];
+    private final int[] pixels = new int[TILE_SIZE * TILE_SIZE];
+
+    @Getter
+    private int rasterizedTiles;
+
+    public MiniMapTiles(WorldGrid grid, boolean drawGrid) {
+        this.grid = grid;
+        this.drawGrid = drawGrid;
+    }
+
+    /**
+     * Draws the region of the given level whose top left corner is at (minX, minY), in level pixels.
+     *
+     * @param level   index in {@link #ZOOM_LEVELS}
+     * @param minX    left edge of the region, in pixels of the level
+     * @param minY    top edge of the region, in pixels of the level
+     * @param width   width of the region
+     * @param height  height of the region
+     * @param screenX left edge of the destination on the canvas
+     * @param screenY top edge of the destination on the canvas
+     */
+    public void draw(GraphicsContext gc, int level, int minX, int minY, int width, int height, int screenX, int screenY) {
+        int maxX = minX + width;
+        int maxY = minY + height;
+
+        for (int tileY = Math.floorDiv(minY, TILE_SIZE); tileY * TILE_SIZE < maxY; tileY++) {
+            int tileMinY = tileY * TILE_SIZE;
+            int fromY = Math.max(minY, tileMinY);
+            int toY = Math.min(maxY, tileMinY + TILE_SIZE);
+
+            for (int tileX = Math.floorDiv(minX, TILE_SIZE); tileX * TILE_SIZE < maxX; tileX++) {
+                int tileMinX = tileX * TILE_SIZE;
+                int fromX = Math.max(minX, tileMinX);
+                int toX = Math.min(maxX, tileMinX + TILE_SIZE);
+
+                gc.drawImage(tile(level, tileX, tileY),
+                        fromX - tileMinX, fromY - tileMinY, toX - fromX, toY - fromY,
+                        screenX + fromX - minX, screenY + fromY - minY, toX - fromX, toY - fromY);
+            }
+        }
+    }
+
+    /**
+     * @return the tile of the given level, rasterized now if it is not cached
+     */
+    WritableImage tile(int level, int tileX, int tileY) {
+        int cellSize = cellSize(level);
+        int cellsPerTile = TILE_SIZE / cellSize;
+        boolean insideMap = tileX >= 0 && tileY >= 0
+                && tileX * cellsPerTile < grid.getWidth() && tileY * cellsPerTile < grid.getHeight();
+
+        if (!insideMap) {
+            if (emptyTiles[level] == null) {
+                emptyTiles[level] = rasterize(level, tileX, tileY);
+            }
+            return emptyTiles[level];
+        }
+
+        long key = ((long) level << 48) | ((long) tileY << 24) | tileX;
+        WritableImage tile = tiles.get(key);
+        if (tile == null) {
+            tile = rasterize(level, tileX, tileY);
+            tiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    private WritableImage rasterize(int level, int tileX, int tileY) {
+        int cellSize = cellSize(level);
+        int cellsPerTile = TILE_SIZE / cellSize;
+        int firstCellX = tileX * cellsPerTile;
+        int firstCellY = tileY * cellsPerTile;
+
+        Arrays.fill(pixels, TRANSPARENT);
+        for (int cy = 0; cy < cellsPerTile; cy++) {
+            for (int cx = 0; cx < cellsPerTile; cx++) {
+                if (grid.isSolid(firstCellX + cx, firstCellY + cy)) {
+                    fillCell(cx * cellSize, cy * cellSize, cellSize);
+                }
+            }
+        }
+
+        if (drawGrid) {
+            for (int y = 0; y < TILE_SIZE; y++) {
+                int row = y * TILE_SIZE;
+                if (y % cellSize == 0) {
+                    Arrays.fill(pixels, row, row + TILE_SIZE, GRID_COLOR);
+                } else {
+                    for (int x = 0; x < TILE_SIZE; x += cellSize) {
+                        pixels[row + x] = GRID_COLOR;
+                    }
+                }
+            }
+        }
+
+        WritableImage image = new WritableImage(TILE_SIZE, TILE_SIZE);
+        image.getPixelWriter().setPixels(0, 0, TILE_SIZE, TILE_SIZE, PixelFormat.getIntArgbInstance(), pixels, 0, TILE_SIZE);
+        rasterizedTiles++;
+        log.trace("rasterized minimap tile {},{} at zoom {}", tileX, tileY, ZOOM_LEVELS[level]);
+        return image;
+    }
+
+    private void fillCell(int x, int y, int size) {
+        for (int row = y; row < y + size; row++) {
+            int offset = row * TILE_SIZE + x;
+            Arrays.fill(pixels, offset, offset + size, WALL_COLOR);
+        }
+    }
+
+    /**
+     * @return the side of a grid cell in pixels at the given level
+     */
+    static int cellSize(int level) {
+        return (int) (MiniMap.GRID_SIZE * ZOOM_LEVELS[level]);
+    }
+
+}
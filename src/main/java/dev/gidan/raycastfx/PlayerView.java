@@ -0,0 +1,54 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.prefabs.Player;
+import lombok.Getter;
+
+/**
+ * Player state as seen by the renderers on the current frame.
+ * <p>
+ * The simulation runs at its own fixed rate, so on every frame the view is interpolated between the last two
+ * published {@link WorldSnapshot}s. It is only ever touched by the JavaFX application thread.
+ */
+@Getter
+public class PlayerView {
+
+    private double x;
+    private double y;
+    private double rotationX;
+    private double rotationY;
+    private Player.Status status = Player.Status.IDLE;
+    private double walkDistance;
+
+    /**
+     * @param alpha position between the previous (0) and the current (1) snapshot
+     */
+    public void interpolate(WorldSnapshot previous, WorldSnapshot current, double alpha) {
+        x = lerp(previous.playerX(), current.playerX(), alpha);
+        y = lerp(previous.playerY(), current.playerY(), alpha);
+
+        // normalized linear interpolation of the facing direction
+        double interpolatedRotationX = lerp(previous.rotationX(), current.rotationX(), alpha);
+        double interpolatedRotationY = lerp(previous.rotationY(), current.rotationY(), alpha);
+        double length = Math.sqrt(interpolatedRotationX * interpolatedRotationX + interpolatedRotationY * interpolatedRotationY);
+        if (length > 0) {
+            rotationX = interpolatedRotationX / length;
+            rotationY = interpolatedRotationY / length;
+        } else {
+            rotationX = current.rotationX();
+            rotationY = current.rotationY();
+        }
+
+        status = current.status();
+        // the walk cycle wraps at 360 degrees
+        double walkDelta = current.walkDistance() - previous.walkDistance();
+        if (walkDelta < 0) {
+            walkDelta += 360;
+        }
+        walkDistance = (previous.walkDistance() + walkDelta * alpha) % 360;
+    }
+
+    private static double lerp(double from, double to, double alpha) {
+        return from + (to - from) * alpha;
+    }
+
+}
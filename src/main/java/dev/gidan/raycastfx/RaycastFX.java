@@ -15,10 +15,13 @@ public class RaycastFX extends Application {
     private static final int GAME_WINDOW_WIDTH = 800;
     private static final int GAME_WINDOW_HEIGHT = 600;
 
+    private GameController controller;
+
     @Override
     public void start(Stage stage) throws IOException {
         FXMLLoader fxmlLoader = new FXMLLoader(RaycastFX.class.getResource("game-view.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), GAME_WINDOW_WIDTH, GAME_WINDOW_HEIGHT);
+        controller = fxmlLoader.getController();
         Input.getInstance().init(scene);
 
         // Load the CSS file and apply it to the scene
@@ -29,6 +32,13 @@ public class RaycastFX extends Application {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.shutdown();
+        }
+    }
+
     public static void main(String[] args) {
         launch();
     }
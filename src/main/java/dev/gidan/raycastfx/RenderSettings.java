@@ -0,0 +1,30 @@
+package dev.gidan.raycastfx;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Render resolution shared by the frame renderers, which read it on every frame so it can change at runtime.
+ */
+@Getter
+@Setter
+public class RenderSettings {
+
+    /**
+     * Horizontal field of view, in degrees.
+     */
+    private double fovAngle = Settings.FOV_ANGLE;
+
+    /**
+     * Number of rendered columns. 0 or less renders one column per pixel.
+     */
+    private int columns = Settings.COLUMNS;
+
+    /**
+     * @return the number of columns to render on a surface of the given width, never more than one per pixel
+     */
+    public int columnsFor(int width) {
+        return columns <= 0 ? width : Math.min(columns, width);
+    }
+
+}
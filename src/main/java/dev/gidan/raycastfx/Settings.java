@@ -0,0 +1,92 @@
+package dev.gidan.raycastfx;
+
+import java.nio.file.Path;
+
+/**
+ * Engine options, read from system properties at startup (e.g. {@code -Draycastfx.castThreads=4}).
+ */
+public class Settings {
+
+    /**
+     * Number of threads casting the rays of a frame. 1 casts every column on the JavaFX application thread.
+     */
+    public static final int CAST_THREADS = Integer.getInteger("raycastfx.castThreads", 1);
+
+    /**
+     * Renders the frame into a pixel buffer ({@link FramebufferRenderer}) instead of drawing
+     * each column on the canvas ({@link GameFrameRenderer}).
+     */
+    public static final boolean FRAMEBUFFER_RENDERER = "framebuffer".equals(System.getProperty("raycastfx.renderer", "canvas"));
+
+    /**
+     * Initial number of rendered columns. 0 renders one column per pixel.
+     * Defaults to 120 on the canvas renderer and to one per pixel on the framebuffer renderer.
+     */
+    public static final int COLUMNS = Integer.getInteger("raycastfx.columns", FRAMEBUFFER_RENDERER ? 0 : 120);
+
+    /**
+     * Horizontal field of view, in degrees.
+     */
+    public static final double FOV_ANGLE = Double.parseDouble(System.getProperty("raycastfx.fov", "90"));
+
+    /**
+     * Frame time budget, in milliseconds, the number of columns is adapted to. 0 keeps the number of columns fixed.
+     */
+    public static final double FRAME_BUDGET_MILLIS = Double.parseDouble(System.getProperty("raycastfx.frameBudgetMs", "0"));
+
+    /**
+     * Shows the frame time statistics overlay at startup. It can be toggled at any time with F3.
+     */
+    public static final boolean STATS_OVERLAY = Boolean.getBoolean("raycastfx.stats");
+
+    /**
+     * Simulation ticks per second. The game logic runs at this rate whatever the frame rate.
+     */
+    public static final int TICK_RATE = Integer.getInteger("raycastfx.tickRate", 60);
+
+    /**
+     * Directory the decoded maps are cached in. Empty disables the cache.
+     */
+    public static final String CACHE_DIR = System.getProperty("raycastfx.cacheDir",
+            Path.of(System.getProperty("user.home"), ".cache", "raycastfx").toString());
+
+    /**
+     * Keeps the world in a memory-mapped chunk file paged in on demand ({@code chunked}) instead of on the heap
+     * ({@code dense}), for maps larger than the heap.
+     */
+    public static final boolean CHUNKED_WORLD = "chunked".equals(System.getProperty("raycastfx.world", "dense"));
+
+    /**
+     * Heap memory, in megabytes, the chunks of a chunked world may take.
+     */
+    public static final int CHUNK_CACHE_MB = Integer.getInteger("raycastfx.chunkCacheMb", 64);
+
+    /**
+     * Draws textured walls with the framebuffer renderer, flat shaded walls otherwise.
+     */
+    public static final boolean TEXTURES = Boolean.parseBoolean(System.getProperty("raycastfx.textures", "true"));
+
+    /**
+     * Culls the sprites with the potentially visible sets of the map, computed the first time a renderer drawing
+     * sprites starts and cached. On by default for dense worlds only: computing the sets reads the whole map.
+     */
+    public static final boolean PVS = Boolean.parseBoolean(System.getProperty("raycastfx.pvs", String.valueOf(!CHUNKED_WORLD)));
+
+    /**
+     * File the input of every simulation tick is saved to when the game exits. Empty disables recording.
+     */
+    public static final String RECORD_FILE = System.getProperty("raycastfx.record", "");
+
+    /**
+     * Input recording replayed instead of the keyboard. Empty plays live.
+     */
+    public static final String REPLAY_FILE = System.getProperty("raycastfx.replay", "");
+
+    /**
+     * @return the cache directory, null if caching is disabled
+     */
+    public static Path cacheDirectory() {
+        return CACHE_DIR.isBlank() ? null : Path.of(CACHE_DIR);
+    }
+
+}
@@ -0,0 +1,130 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.entity.EntitySnapshot;
+import dev.gidan.raycastfx.render.Sprites;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs the game logic at a fixed tick rate on its own thread, decoupled from rendering.
+ * <p>
+ * After each tick the state of the world is published as an immutable {@link WorldSnapshot}, together with the
+ * snapshot of the previous tick. The render loop reads both and interpolates between them, so a slow frame does not
+ * slow down the game and a slow tick does not stall drawing.
+ * <p>
+ * The input is read once at the start of every tick, from a source that is either the live {@link Input} or a
+ * {@link InputRecording} being replayed.
+ */
+@Slf4j
+public class Simulation {
+
+    /**
+     * Ticks run back to back to catch up after a stall, before giving up and skipping the missed time.
+     */
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private record Snapshots(WorldSnapshot previous, WorldSnapshot current) {
+    }
+
+    private final GameState gameState;
+    private final Supplier<InputSnapshot> input;
+    @Getter
+    private final long tickNanos;
+    private final double tickSeconds;
+
+    private volatile Snapshots snapshots;
+    private volatile boolean running;
+    private Thread thread;
+    private long tick;
+
+    /**
+     * @param input source of the input of every tick
+     */
+    public Simulation(GameState gameState, int ticksPerSecond, Supplier<InputSnapshot> input) {
+        this.gameState = gameState;
+        this.input = input;
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.tickSeconds = 1.0 / ticksPerSecond;
+
+        WorldSnapshot initial = WorldSnapshot.of(0, System.nanoTime(), gameState.getPlayer(),
+                EntitySnapshot.capture(gameState.getEntities()));
+        this.snapshots = new Snapshots(initial, initial);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+        log.debug("simulation started at {} ticks per second", 1_000_000_000L / tickNanos);
+    }
+
+    /**
+     * Stops the simulation thread and waits for the tick in progress, if any, to complete.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    private void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            if (now < nextTick) {
+                LockSupport.parkNanos(nextTick - now);
+                continue;
+            }
+
+            int ticks = 0;
+            while (now >= nextTick && ticks < MAX_CATCH_UP_TICKS) {
+                step(nextTick);
+                nextTick += tickNanos;
+                ticks++;
+            }
+
+            if (now >= nextTick) {
+                log.debug("simulation is late by {} ms, skipping", (now - nextTick) / 1_000_000);
+                nextTick = now + tickNanos;
+            }
+        }
+    }
+
+    /**
+     * Advances the world by one tick and publishes its snapshot.
+     *
+     * @param timeNanos time the tick is scheduled at
+     */
+    public void step(long timeNanos) {
+        gameState.update(tickSeconds, input.get());
+        WorldSnapshot current = WorldSnapshot.of(++tick, timeNanos, gameState.getPlayer(),
+                EntitySnapshot.capture(gameState.getEntities()));
+        snapshots = new Snapshots(snapshots.current(), current);
+    }
+
+    /**
+     * Updates the view and the sprites with the world state at the given time, interpolated between the last two
+     * ticks. Rendering lags one tick behind the simulation, which is what makes the interpolation possible.
+     */
+    public void interpolate(PlayerView view, Sprites sprites, long nowNanos) {
+        Snapshots published = snapshots;
+        double alpha = Math.max(0, Math.min(1, (double) (nowNanos - published.current().timeNanos()) / tickNanos));
+        view.interpolate(published.previous(), published.current(), alpha);
+        EntitySnapshot.interpolate(published.previous().entities(), published.current().entities(), alpha, sprites);
+    }
+
+}
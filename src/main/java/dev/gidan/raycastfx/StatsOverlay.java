@@ -0,0 +1,102 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.util.RollingHistogram;
+import dev.gidan.raycastfx.util.TextFormat;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+/**
+ * Draws the frame time percentiles of every stage in the top right corner of the canvas.
+ * Toggled with F3.
+ */
+public class StatsOverlay {
+
+    private static final int WIDTH = 330;
+    private static final int MARGIN = 20;
+    private static final int LINE_HEIGHT = 15;
+    private static final int LABEL_WIDTH = 8;
+    private static final int VALUE_WIDTH = 6;
+
+    private final Canvas canvas;
+    private final GraphicsContext gc;
+    private final FrameProfiler profiler;
+
+    private final HudLine header = new HudLine(Fonts.TINY_NORMAL, Color.WHITE, 0);
+    private final HudLine[] stageLines = new HudLine[FrameStage.values().length];
+    private final HudLine frameLine = line();
+    private final HudLine intervalLine = line();
+
+    public StatsOverlay(Canvas canvas, FrameProfiler profiler) {
+        this.canvas = canvas;
+        this.gc = canvas.getGraphicsContext2D();
+        this.profiler = profiler;
+
+        StringBuilder text = header.edit();
+        TextFormat.padRight(text.append("stage"), 0, LABEL_WIDTH);
+        for (String column : new String[]{"p50", "p95", "p99", "max"}) {
+            int start = text.append(' ').length();
+            TextFormat.padLeft(text.append(column), start, VALUE_WIDTH);
+        }
+        text.append(" ms");
+
+        for (int i = 0; i < stageLines.length; i++) {
+            stageLines[i] = line();
+        }
+    }
+
+    private static HudLine line() {
+        return new HudLine(Fonts.TINY_NORMAL, Color.WHITE, 4);
+    }
+
+    public void update() {
+        if (!Input.getInstance().isShowingStats()) {
+            return;
+        }
+
+        double x = canvas.getWidth() - WIDTH - MARGIN;
+        double y = MARGIN;
+        int lines = FrameStage.values().length + 3;
+
+        gc.setFill(Color.rgb(0, 0, 0, 0.6));
+        gc.fillRect(x - 5, y, WIDTH + 10, lines * LINE_HEIGHT + 5);
+
+        y += LINE_HEIGHT;
+        header.draw(gc, x, y);
+        for (FrameStage stage : FrameStage.values()) {
+            y += LINE_HEIGHT;
+            drawLine(stageLines[stage.ordinal()], stage.getLabel(), profiler.get(stage), x, y);
+        }
+        y += LINE_HEIGHT;
+        drawLine(frameLine, "frame", profiler.getFrame(), x, y);
+        y += LINE_HEIGHT;
+        drawLine(intervalLine, "interval", profiler.getInterval(), x, y);
+    }
+
+    private void drawLine(HudLine line, String label, RollingHistogram histogram, double x, double y) {
+        double p50 = millis(histogram.percentile(50));
+        double p95 = millis(histogram.percentile(95));
+        double p99 = millis(histogram.percentile(99));
+        double max = millis(histogram.max());
+
+        if (line.value(0, p50, 2).value(1, p95, 2).value(2, p99, 2).value(3, max, 2).isDirty()) {
+            StringBuilder text = line.edit();
+            TextFormat.padRight(text.append(label), 0, LABEL_WIDTH);
+            appendValue(text, p50);
+            appendValue(text, p95);
+            appendValue(text, p99);
+            appendValue(text, max);
+        }
+        line.draw(gc, x, y);
+    }
+
+    private static void appendValue(StringBuilder text, double millis) {
+        int start = text.append(' ').length();
+        TextFormat.padLeft(TextFormat.appendFixed(text, millis, 2), start, VALUE_WIDTH);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+}
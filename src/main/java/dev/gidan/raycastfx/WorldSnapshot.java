@@ -0,0 +1,28 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.entity.EntitySnapshot;
+import dev.gidan.raycastfx.prefabs.Player;
+
+/**
+ * Immutable state of the world at the end of a simulation tick, as published to the renderers.
+ *
+ * @param tick         number of the tick that produced the snapshot
+ * @param timeNanos    time the tick was scheduled at, in {@link System#nanoTime()} units
+ * @param walkDistance the walk cycle of the player, in degrees
+ * @param entities     the entities drawn as sprites
+ */
+public record WorldSnapshot(long tick, long timeNanos,
+                            double playerX, double playerY,
+                            double rotationX, double rotationY,
+                            Player.Status status, double walkDistance,
+                            EntitySnapshot entities) {
+
+    public static WorldSnapshot of(long tick, long timeNanos, Player player, EntitySnapshot entities) {
+        return new WorldSnapshot(tick, timeNanos,
+                player.getX(), player.getY(),
+                player.getRotationX(), player.getRotationY(),
+                player.getStatus(), player.getDistance(),
+                entities);
+    }
+
+}
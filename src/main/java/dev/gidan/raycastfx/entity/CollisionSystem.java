@@ -0,0 +1,133 @@
+package dev.gidan.raycastfx.entity;
+
+import dev.gidan.raycastfx.world.CircleSweep;
+import dev.gidan.raycastfx.world.WorldGrid;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Pushes apart the bodies overlapping each other after they moved.
+ * <p>
+ * Bodies are the entities with a positive radius, projectiles aside. They are hashed into a {@link SpatialHash} whose
+ * cells are as large as the largest body, so a body can only overlap the bodies of the 3x3 cells around its own: the
+ * cost of an update grows with the number of bodies, not with its square. Every overlapping pair is separated once
+ * per tick, each body moving by half the overlap, and the pushes are swept against the walls like any other move.
+ */
+public class CollisionSystem implements EntitySystem {
+
+    private final WorldGrid grid;
+    private final SpatialHash hash = new SpatialHash();
+
+    // scratch columns of the bodies, reused on every update
+    private int[] bodies = new int[64];
+    private double[] bodyX = new double[64];
+    private double[] bodyY = new double[64];
+    private final int[] neighbourBuckets = new int[9];
+
+    /**
+     * Pairs of bodies whose distance has been tested by the last update
+     */
+    @Getter
+    private int pairTests;
+
+    /**
+     * Pairs of overlapping bodies separated by the last update
+     */
+    @Getter
+    private int contacts;
+
+    public CollisionSystem(WorldGrid grid) {
+        this.grid = grid;
+    }
+
+    @Override
+    public void update(EntityStore store, double deltaSeconds) {
+        double[] x = store.xs();
+        double[] y = store.ys();
+        double[] radius = store.radii();
+        int[] flags = store.flagColumn();
+
+        int count = 0;
+        double maxRadius = 0;
+        for (int i = 0; i < store.getSize(); i++) {
+            if (radius[i] > 0 && (flags[i] & EntityStore.PROJECTILE) == 0) {
+                if (count == bodies.length) {
+                    bodies = Arrays.copyOf(bodies, count * 2);
+                    bodyX = Arrays.copyOf(bodyX, count * 2);
+                    bodyY = Arrays.copyOf(bodyY, count * 2);
+                }
+                bodies[count] = i;
+                bodyX[count] = x[i];
+                bodyY[count] = y[i];
+                count++;
+                maxRadius = Math.max(maxRadius, radius[i]);
+            }
+        }
+        pairTests = 0;
+        contacts = 0;
+        if (count < 2) {
+            return;
+        }
+
+        hash.build(bodyX, bodyY, count, 2 * maxRadius);
+        for (int a = 0; a < count; a++) {
+            int cellX = hash.cell(bodyX[a]);
+            int cellY = hash.cell(bodyY[a]);
+            int buckets = 0;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int bucket = hash.bucket(cellX + dx, cellY + dy);
+                    if (!contains(neighbourBuckets, buckets, bucket)) {
+                        neighbourBuckets[buckets++] = bucket;
+                    }
+                }
+            }
+
+            for (int n = 0; n < buckets; n++) {
+                int bucket = neighbourBuckets[n];
+                for (int e = hash.start(bucket); e < hash.end(bucket); e++) {
+                    int b = hash.entry(e);
+                    // every pair once
+                    if (b > a) {
+                        pairTests++;
+                        separate(x, y, radius, bodies[a], bodies[b]);
+                    }
+                }
+            }
+        }
+    }
+
+    private void separate(double[] x, double[] y, double[] radius, int i, int j) {
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        double reach = radius[i] + radius[j];
+        double distanceSquared = dx * dx + dy * dy;
+        if (distanceSquared >= reach * reach) {
+            return;
+        }
+        contacts++;
+
+        double distance = Math.sqrt(distanceSquared);
+        double normalX = distance > 0 ? dx / distance : 1;
+        double normalY = distance > 0 ? dy / distance : 0;
+        double push = (reach - distance) / 2;
+        move(x, y, radius, i, -normalX * push, -normalY * push);
+        move(x, y, radius, j, normalX * push, normalY * push);
+    }
+
+    private void move(double[] x, double[] y, double[] radius, int i, double dx, double dy) {
+        x[i] = CircleSweep.sweepX(grid, x[i], y[i], radius[i], dx);
+        y[i] = CircleSweep.sweepY(grid, x[i], y[i], radius[i], dy);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
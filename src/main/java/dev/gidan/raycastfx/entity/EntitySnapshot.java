@@ -0,0 +1,107 @@
+package dev.gidan.raycastfx.entity;
+
+import dev.gidan.raycastfx.render.Sprites;
+
+/**
+ * Immutable copy of the entities drawn as sprites at the end of a simulation tick.
+ * <p>
+ * The columns are copied into fresh arrays on every tick: they are handed over to the render thread, which reads
+ * them without any lock while the simulation goes on with the next tick.
+ */
+public final class EntitySnapshot {
+
+    public static final EntitySnapshot EMPTY = new EntitySnapshot(0, new int[0], new double[0], new double[0],
+            new double[0], new int[0], new int[0]);
+
+    private final int size;
+    private final int[] ids;
+    private final double[] x;
+    private final double[] y;
+    private final double[] scale;
+    private final int[] sprite;
+
+    /**
+     * Index plus one of the entity of every id slot in the snapshot, 0 for the slots of entities not in it
+     */
+    private final int[] indexBySlot;
+
+    private EntitySnapshot(int size, int[] ids, double[] x, double[] y, double[] scale, int[] sprite,
+                           int[] indexBySlot) {
+        this.size = size;
+        this.ids = ids;
+        this.x = x;
+        this.y = y;
+        this.scale = scale;
+        this.sprite = sprite;
+        this.indexBySlot = indexBySlot;
+    }
+
+    public static EntitySnapshot capture(EntityStore store) {
+        int count = 0;
+        for (int i = 0; i < store.getSize(); i++) {
+            if (store.hasFlags(i, EntityStore.SPRITE)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return EMPTY;
+        }
+
+        int[] ids = new int[count];
+        double[] x = new double[count];
+        double[] y = new double[count];
+        double[] scale = new double[count];
+        int[] sprite = new int[count];
+        int[] indexBySlot = new int[store.getSlotCapacity()];
+        int next = 0;
+        for (int i = 0; i < store.getSize(); i++) {
+            if (store.hasFlags(i, EntityStore.SPRITE)) {
+                ids[next] = store.id(i);
+                x[next] = store.x(i);
+                y[next] = store.y(i);
+                scale[next] = store.scale(i);
+                sprite[next] = store.sprite(i);
+                indexBySlot[EntityStore.slot(ids[next])] = ++next;
+            }
+        }
+        return new EntitySnapshot(count, ids, x, y, scale, sprite, indexBySlot);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the index of the entity in the snapshot, which is also the index of its sprite once interpolated, -1 if
+     * the entity is not in the snapshot
+     */
+    int indexOf(int id) {
+        int slot = EntityStore.slot(id);
+        int index = id >= 0 && slot < indexBySlot.length ? indexBySlot[slot] - 1 : -1;
+        return index >= 0 && ids[index] == id ? index : -1;
+    }
+
+    /**
+     * Fills the sprites with the entities of the current snapshot, at their position interpolated from the previous
+     * one. Entities missing from the previous snapshot are drawn at their current position, including an entity
+     * created in the slot of one removed during the same tick: its id differs from the id of the removed one.
+     *
+     * @param alpha position between the previous (0) and the current (1) snapshot
+     */
+    public static void interpolate(EntitySnapshot previous, EntitySnapshot current, double alpha, Sprites sprites) {
+        sprites.clear();
+        for (int i = 0; i < current.size; i++) {
+            double x = current.x[i];
+            double y = current.y[i];
+
+            int id = current.ids[i];
+            int match = previous.indexOf(id);
+            if (match >= 0) {
+                x = previous.x[match] + (x - previous.x[match]) * alpha;
+                y = previous.y[match] + (y - previous.y[match]) * alpha;
+            }
+            sprites.add(x, y, current.scale[i], current.sprite[i]);
+        }
+    }
+
+}
@@ -0,0 +1,324 @@
+package dev.gidan.raycastfx.entity;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Every entity of the world, stored as one primitive array per component.
+ * <p>
+ * Entities live at the indices [0, size) of the columns, without holes, so systems update them in tight loops over
+ * plain arrays. Removing an entity moves the last one into its slot; entities are therefore referred to by an id,
+ * which stays the same for their whole life, and mapped to their current index with {@link #index(int)}.
+ * <p>
+ * The low {@link #SLOT_BITS} bits of an id are a slot, reused by the next entities created once its entity is
+ * removed; the high bits count the reuses of the slot. The id of a removed entity thus never names the entity created
+ * after it in the same slot, at least until its count wraps around.
+ * <p>
+ * Indices are only stable until the next removal. A system iterating from the last index down may remove the
+ * entity it is looking at, as the entity moved into its slot has already been visited.
+ */
+public class EntityStore {
+
+    /**
+     * Drawn as a billboard sprite
+     */
+    public static final int SPRITE = 1;
+
+    /**
+     * Removed when it hits a wall
+     */
+    public static final int PROJECTILE = 1 << 1;
+
+    /**
+     * Set by the movement when the last move of the entity has been stopped by a wall, cleared otherwise
+     */
+    public static final int BLOCKED = 1 << 2;
+
+    /**
+     * Bits of an id holding its slot
+     */
+    static final int SLOT_BITS = 24;
+
+    private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+    private static final int GENERATION_MASK = Integer.MAX_VALUE >>> SLOT_BITS;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @Getter
+    private int size;
+
+    // component columns, indexed by entity index
+    private int[] id = new int[INITIAL_CAPACITY];
+    private double[] x = new double[INITIAL_CAPACITY];
+    private double[] y = new double[INITIAL_CAPACITY];
+    private double[] velocityX = new double[INITIAL_CAPACITY];
+    private double[] velocityY = new double[INITIAL_CAPACITY];
+    private double[] headingX = new double[INITIAL_CAPACITY];
+    private double[] headingY = new double[INITIAL_CAPACITY];
+    private double[] radius = new double[INITIAL_CAPACITY];
+    private double[] scale = new double[INITIAL_CAPACITY];
+    private int[] sprite = new int[INITIAL_CAPACITY];
+    private int[] flags = new int[INITIAL_CAPACITY];
+
+    /**
+     * Current index of the entity of every slot, -1 for the slots of removed entities
+     */
+    private int[] indexBySlot = new int[INITIAL_CAPACITY];
+
+    /**
+     * Ids of removed entities, whose slots are reused by the next entities created
+     */
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeIdCount;
+    private int nextSlot;
+
+    /**
+     * Creates a point entity at rest at the given position, facing up.
+     *
+     * @return the id of the entity
+     */
+    public int create(double x, double y, int flags) {
+        if (size == this.x.length) {
+            grow(size * 2);
+        }
+
+        int entityId;
+        if (freeIdCount > 0) {
+            int freeId = freeIds[--freeIdCount];
+            int generation = ((freeId >>> SLOT_BITS) + 1) & GENERATION_MASK;
+            entityId = generation << SLOT_BITS | slot(freeId);
+        } else {
+            if (nextSlot > SLOT_MASK) {
+                throw new IllegalStateException("more than " + (SLOT_MASK + 1) + " entities");
+            }
+            entityId = nextSlot++;
+            if (entityId == indexBySlot.length) {
+                indexBySlot = Arrays.copyOf(indexBySlot, entityId * 2);
+            }
+        }
+
+        int index = size++;
+        indexBySlot[slot(entityId)] = index;
+        this.id[index] = entityId;
+        this.x[index] = x;
+        this.y[index] = y;
+        this.velocityX[index] = 0;
+        this.velocityY[index] = 0;
+        this.headingX[index] = 0;
+        this.headingY[index] = -1;
+        this.radius[index] = 0;
+        this.scale[index] = 1;
+        this.sprite[index] = 0;
+        this.flags[index] = flags;
+        return entityId;
+    }
+
+    /**
+     * Removes the entity at the given index, moving the last entity into its slot.
+     */
+    public void removeAt(int index) {
+        int removedId = id[index];
+        int last = --size;
+        if (index != last) {
+            id[index] = id[last];
+            x[index] = x[last];
+            y[index] = y[last];
+            velocityX[index] = velocityX[last];
+            velocityY[index] = velocityY[last];
+            headingX[index] = headingX[last];
+            headingY[index] = headingY[last];
+            radius[index] = radius[last];
+            scale[index] = scale[last];
+            sprite[index] = sprite[last];
+            flags[index] = flags[last];
+            indexBySlot[slot(id[index])] = index;
+        }
+
+        indexBySlot[slot(removedId)] = -1;
+        if (freeIdCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+        }
+        freeIds[freeIdCount++] = removedId;
+    }
+
+    public void remove(int entityId) {
+        removeAt(index(entityId));
+    }
+
+    /**
+     * @return the current index of the entity
+     * @throws IllegalArgumentException if the entity has been removed
+     */
+    public int index(int entityId) {
+        int index = indexOf(entityId);
+        if (index < 0) {
+            throw new IllegalArgumentException("no entity " + entityId);
+        }
+        return index;
+    }
+
+    public boolean contains(int entityId) {
+        return indexOf(entityId) >= 0;
+    }
+
+    /**
+     * @return the current index of the entity, -1 if it has been removed
+     */
+    private int indexOf(int entityId) {
+        int index = entityId >= 0 && slot(entityId) < nextSlot ? indexBySlot[slot(entityId)] : -1;
+        return index >= 0 && id[index] == entityId ? index : -1;
+    }
+
+    /**
+     * @return an upper bound of the slots of the ids, slots being reused they stay below the largest count of
+     * entities alive at the same time
+     */
+    public int getSlotCapacity() {
+        return nextSlot;
+    }
+
+    /**
+     * @return the slot of the id, shared with the ids of the entities removed before it in the same slot
+     */
+    static int slot(int entityId) {
+        return entityId & SLOT_MASK;
+    }
+
+    private void grow(int capacity) {
+        id = Arrays.copyOf(id, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        headingX = Arrays.copyOf(headingX, capacity);
+        headingY = Arrays.copyOf(headingY, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        scale = Arrays.copyOf(scale, capacity);
+        sprite = Arrays.copyOf(sprite, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    public int id(int index) {
+        return id[index];
+    }
+
+    public double x(int index) {
+        return x[index];
+    }
+
+    public double y(int index) {
+        return y[index];
+    }
+
+    public void setPosition(int index, double x, double y) {
+        this.x[index] = x;
+        this.y[index] = y;
+    }
+
+    public double velocityX(int index) {
+        return velocityX[index];
+    }
+
+    public double velocityY(int index) {
+        return velocityY[index];
+    }
+
+    /**
+     * @param velocityX world units per second
+     * @param velocityY world units per second
+     */
+    public void setVelocity(int index, double velocityX, double velocityY) {
+        this.velocityX[index] = velocityX;
+        this.velocityY[index] = velocityY;
+    }
+
+    public double headingX(int index) {
+        return headingX[index];
+    }
+
+    public double headingY(int index) {
+        return headingY[index];
+    }
+
+    /**
+     * @param headingX x of the unit vector the entity faces
+     * @param headingY y of the unit vector the entity faces
+     */
+    public void setHeading(int index, double headingX, double headingY) {
+        this.headingX[index] = headingX;
+        this.headingY[index] = headingY;
+    }
+
+    /**
+     * @return the radius of the body of the entity in world units, 0 for a point that only collides with walls
+     */
+    public double radius(int index) {
+        return radius[index];
+    }
+
+    public void setRadius(int index, double radius) {
+        this.radius[index] = radius;
+    }
+
+    /**
+     * @return the height of the sprite relative to the walls
+     */
+    public double scale(int index) {
+        return scale[index];
+    }
+
+    /**
+     * @return the index of the sprite image in the sprite atlas
+     */
+    public int sprite(int index) {
+        return sprite[index];
+    }
+
+    public void setSprite(int index, int sprite, double scale) {
+        this.sprite[index] = sprite;
+        this.scale[index] = scale;
+    }
+
+    public int flags(int index) {
+        return flags[index];
+    }
+
+    public boolean hasFlags(int index, int flags) {
+        return (this.flags[index] & flags) == flags;
+    }
+
+    public void setFlags(int index, int flags) {
+        this.flags[index] = flags;
+    }
+
+    /*
+     * Raw columns, for the systems of this package. They are replaced when the store grows, so they are only valid
+     * until the next creation of an entity.
+     */
+
+    double[] xs() {
+        return x;
+    }
+
+    double[] ys() {
+        return y;
+    }
+
+    double[] velocityXs() {
+        return velocityX;
+    }
+
+    double[] velocityYs() {
+        return velocityY;
+    }
+
+    double[] radii() {
+        return radius;
+    }
+
+    int[] flagColumn() {
+        return flags;
+    }
+
+}
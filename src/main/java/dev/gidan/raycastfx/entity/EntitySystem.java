@@ -0,0 +1,13 @@
+package dev.gidan.raycastfx.entity;
+
+/**
+ * Behavior applied to the entities of a store on every simulation tick.
+ */
+public interface EntitySystem {
+
+    /**
+     * @param deltaSeconds duration of the tick
+     */
+    void update(EntityStore store, double deltaSeconds);
+
+}
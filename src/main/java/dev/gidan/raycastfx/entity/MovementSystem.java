@@ -0,0 +1,82 @@
+package dev.gidan.raycastfx.entity;
+
+import dev.gidan.raycastfx.world.CircleSweep;
+import dev.gidan.raycastfx.world.WorldGrid;
+import lombok.Getter;
+
+/**
+ * Moves every entity by its velocity, sweeping its body against the walls so it cannot tunnel through them.
+ * <p>
+ * The move is resolved along x then along y. An entity stopped by a wall on an axis loses the velocity along that
+ * axis and keeps the other one, sliding along the wall; it is flagged {@link EntityStore#BLOCKED}, or removed if it
+ * is a {@link EntityStore#PROJECTILE}.
+ */
+public class MovementSystem implements EntitySystem {
+
+    private final WorldGrid grid;
+
+    /**
+     * Swept tests against the walls performed by the last update
+     */
+    @Getter
+    private int collisionChecks;
+
+    public MovementSystem(WorldGrid grid) {
+        this.grid = grid;
+    }
+
+    @Override
+    public void update(EntityStore store, double deltaSeconds) {
+        double[] x = store.xs();
+        double[] y = store.ys();
+        double[] radius = store.radii();
+        double[] velocityX = store.velocityXs();
+        double[] velocityY = store.velocityYs();
+        int[] flags = store.flagColumn();
+        int checks = 0;
+
+        // from the last index down, so projectiles can be removed on the way
+        for (int i = store.getSize() - 1; i >= 0; i--) {
+            double dx = velocityX[i] * deltaSeconds;
+            double dy = velocityY[i] * deltaSeconds;
+            if (dx == 0 && dy == 0) {
+                flags[i] &= ~EntityStore.BLOCKED;
+                continue;
+            }
+
+            double nextX = x[i];
+            double nextY = y[i];
+            boolean blockedX = false;
+            boolean blockedY = false;
+            if (dx != 0) {
+                nextX = CircleSweep.sweepX(grid, x[i], y[i], radius[i], dx);
+                blockedX = nextX != x[i] + dx;
+                checks++;
+            }
+            if (dy != 0) {
+                nextY = CircleSweep.sweepY(grid, nextX, y[i], radius[i], dy);
+                blockedY = nextY != y[i] + dy;
+                checks++;
+            }
+
+            if (!blockedX && !blockedY) {
+                flags[i] &= ~EntityStore.BLOCKED;
+            } else if ((flags[i] & EntityStore.PROJECTILE) != 0) {
+                store.removeAt(i);
+                continue;
+            } else {
+                flags[i] |= EntityStore.BLOCKED;
+                if (blockedX) {
+                    velocityX[i] = 0;
+                }
+                if (blockedY) {
+                    velocityY[i] = 0;
+                }
+            }
+            x[i] = nextX;
+            y[i] = nextY;
+        }
+        collisionChecks = checks;
+    }
+
+}
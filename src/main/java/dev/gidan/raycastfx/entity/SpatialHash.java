@@ -0,0 +1,90 @@
+package dev.gidan.raycastfx.entity;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid of square cells hashed into a fixed number of buckets, rebuilt from scratch every tick.
+ * <p>
+ * Items are counting-sorted by bucket into a single array, so building costs two passes over the items and querying
+ * a cell reads a contiguous run of it; nothing is allocated once the arrays have grown to the largest item count.
+ * Distinct cells may share a bucket, so queries return a superset of the items of a cell.
+ */
+public class SpatialHash {
+
+    private double cellSize = 1;
+    private int mask;
+    private int[] bucketStart = new int[2];
+    private int[] bucketOfItem = new int[0];
+    private int[] entries = new int[0];
+
+    /**
+     * Sorts the items by the bucket of the cell containing them.
+     *
+     * @param x        x of the items, in world units
+     * @param y        y of the items, in world units
+     * @param count    number of items, the items being the indices [0, count) of the coordinate arrays
+     * @param cellSize side of the cells, in world units
+     */
+    public void build(double[] x, double[] y, int count, double cellSize) {
+        this.cellSize = cellSize;
+        int buckets = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+        mask = buckets - 1;
+        if (bucketStart.length < buckets + 1) {
+            bucketStart = new int[buckets + 1];
+        }
+        if (entries.length < count) {
+            entries = new int[count];
+            bucketOfItem = new int[count];
+        }
+
+        // counts the items of every bucket, turns the counts into end offsets, then fills every bucket backwards
+        // from its end: each end offset ends up at the start of its bucket
+        Arrays.fill(bucketStart, 0, buckets + 1, 0);
+        for (int i = 0; i < count; i++) {
+            int bucket = bucket(cell(x[i]), cell(y[i]));
+            bucketOfItem[i] = bucket;
+            bucketStart[bucket]++;
+        }
+        for (int bucket = 1; bucket < buckets; bucket++) {
+            bucketStart[bucket] += bucketStart[bucket - 1];
+        }
+        bucketStart[buckets] = count;
+        for (int i = count - 1; i >= 0; i--) {
+            entries[--bucketStart[bucketOfItem[i]]] = i;
+        }
+    }
+
+    /**
+     * @return the cell containing the given world coordinate
+     */
+    public int cell(double world) {
+        return (int) Math.floor(world / cellSize);
+    }
+
+    public int bucket(int cellX, int cellY) {
+        int hash = cellX * 0x9E3779B1 ^ cellY * 0x85EBCA77;
+        return (hash ^ (hash >>> 15)) & mask;
+    }
+
+    /**
+     * @return the index in {@link #entry(int)} of the first item of the bucket
+     */
+    public int start(int bucket) {
+        return bucketStart[bucket];
+    }
+
+    /**
+     * @return the index in {@link #entry(int)} following the last item of the bucket
+     */
+    public int end(int bucket) {
+        return bucketStart[bucket + 1];
+    }
+
+    /**
+     * @return the item stored at the given index of the sorted entries
+     */
+    public int entry(int index) {
+        return entries[index];
+    }
+
+}
@@ -0,0 +1,98 @@
+package dev.gidan.raycastfx.headless;
+
+import dev.gidan.raycastfx.world.WorldGrid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted camera movement, made of keyframes the camera goes through at a constant pace.
+ * Positions and angles are interpolated linearly between consecutive keyframes.
+ */
+public class CameraPath {
+
+    /**
+     * Camera placement at a keyframe.
+     *
+     * @param x     world position, in world units
+     * @param y     world position, in world units
+     * @param angle view direction, in degrees, 0 facing positive x and 90 facing positive y
+     */
+    public record Pose(double x, double y, double angle) {
+
+        public double rotationX() {
+            return Math.cos(Math.toRadians(angle));
+        }
+
+        public double rotationY() {
+            return Math.sin(Math.toRadians(angle));
+        }
+
+    }
+
+    private final List<Pose> keyframes;
+
+    public CameraPath(List<Pose> keyframes) {
+        if (keyframes.isEmpty()) {
+            throw new IllegalArgumentException("a camera path needs at least one keyframe");
+        }
+        this.keyframes = List.copyOf(keyframes);
+    }
+
+    /**
+     * @param progress position along the path, from 0 (first keyframe) to 1 (last keyframe)
+     */
+    public Pose at(double progress) {
+        if (keyframes.size() == 1) {
+            return keyframes.getFirst();
+        }
+        double position = Math.clamp(progress, 0, 1) * (keyframes.size() - 1);
+        int index = Math.min((int) position, keyframes.size() - 2);
+        double t = position - index;
+        Pose from = keyframes.get(index);
+        Pose to = keyframes.get(index + 1);
+        return new Pose(
+                from.x() + (to.x() - from.x()) * t,
+                from.y() + (to.y() - from.y()) * t,
+                from.angle() + (to.angle() - from.angle()) * t);
+    }
+
+    /**
+     * Path turning on the spot in the center of the given cell.
+     *
+     * @param turns number of full turns
+     */
+    public static CameraPath spin(int cellX, int cellY, int turns) {
+        double x = (cellX + 0.5) * WorldGrid.CELL_SIZE;
+        double y = (cellY + 0.5) * WorldGrid.CELL_SIZE;
+        return new CameraPath(List.of(new Pose(x, y, 0), new Pose(x, y, 360.0 * turns)));
+    }
+
+    /**
+     * Parses a path written one keyframe per line as {@code x y angle}, with the position in cells (fractions allowed)
+     * and the angle in degrees. Blank lines and lines starting with {@code #} are ignored.
+     */
+    public static CameraPath parse(List<String> lines) {
+        List<Pose> keyframes = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\\s+");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("line " + (i + 1) + ": expected x y angle, got '" + line + "'");
+            }
+            try {
+                keyframes.add(new Pose(
+                        Double.parseDouble(fields[0]) * WorldGrid.CELL_SIZE,
+                        Double.parseDouble(fields[1]) * WorldGrid.CELL_SIZE,
+                        Double.parseDouble(fields[2])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("line " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return new CameraPath(keyframes);
+    }
+
+}
@@ -0,0 +1,51 @@
+package dev.gidan.raycastfx.headless;
+
+import java.util.Arrays;
+
+/**
+ * Every frame time of a run, in nanoseconds, kept raw so the report gives exact percentiles.
+ * <p>
+ * The times are sorted once, by {@link #sort()}, after the last frame; the statistics are read from the sorted times.
+ */
+class FrameTimes {
+
+    private final long[] times;
+    private int size;
+
+    FrameTimes(int capacity) {
+        times = new long[capacity];
+    }
+
+    void record(long nanos) {
+        times[size++] = nanos;
+    }
+
+    void sort() {
+        Arrays.sort(times, 0, size);
+    }
+
+    double mean() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += times[i];
+        }
+        return size == 0 ? 0 : (double) total / size;
+    }
+
+    /**
+     * @param percent from 0 to 100
+     * @return the nearest-rank percentile of the sorted times, 0 if there are none
+     */
+    long percentile(double percent) {
+        if (size == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100 * size);
+        return times[Math.clamp(rank - 1, 0, size - 1)];
+    }
+
+    long max() {
+        return size == 0 ? 0 : times[size - 1];
+    }
+
+}
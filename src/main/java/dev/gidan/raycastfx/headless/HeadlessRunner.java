@@ -0,0 +1,272 @@
+package dev.gidan.raycastfx.headless;
+
+import dev.gidan.raycastfx.GameState;
+import dev.gidan.raycastfx.InputRecording;
+import dev.gidan.raycastfx.Settings;
+import dev.gidan.raycastfx.entity.EntitySnapshot;
+import dev.gidan.raycastfx.entity.EntityStore;
+import dev.gidan.raycastfx.prefabs.Player;
+import dev.gidan.raycastfx.render.Framebuffer;
+import dev.gidan.raycastfx.render.MemoryRenderTarget;
+import dev.gidan.raycastfx.render.SoftwareRenderer;
+import dev.gidan.raycastfx.render.Sprites;
+import dev.gidan.raycastfx.world.ChunkedWorld;
+import dev.gidan.raycastfx.world.MapData;
+import dev.gidan.raycastfx.world.PotentiallyVisibleSet;
+import dev.gidan.raycastfx.world.WorldGrid;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+/**
+ * Renders frames into memory along a scripted camera path, without starting JavaFX, and reports the throughput.
+ * <p>
+ * In timedemo mode the camera follows the player of an {@link InputRecording} instead: every frame runs one
+ * simulation tick with the recorded input then renders it, as fast as possible. The same recording always follows the
+ * same path, which makes timedemos repeatable performance runs on real movement.
+ * <p>
+ * Options, all optional:
+ * <pre>
+ * --frames=N        measured frames, 600 by default
+ * --warmup=N        frames rendered before measuring, 60 by default
+ * --size=WxH        frame size in pixels, 1280x720 by default
+ * --columns=N       rays per frame, 0 (the default) for one per pixel column
+ * --map=RESOURCE    classpath location of the map image, /map.png by default
+ * --path=FILE       camera path, see {@link CameraPath#parse}; two turns on the player spawn by default
+ * --timedemo=FILE   replays an input recording, one tick per frame, instead of following a camera path; the
+ *                   measured frames are the ticks of the recording
+ * --sprites=N       extra sprites scattered on random floor cells, on top of the ones of the map
+ * --output=FILE     writes the last frame as a PNG image
+ * </pre>
+ * The cast threads, field of view, textures, cache directory, world storage and sprite culling come from the usual
+ * {@link Settings}.
+ */
+@Slf4j
+public class HeadlessRunner {
+
+    private static final String DEFAULT_MAP = "/map.png";
+    private static final int SCATTERED_SPRITE_RGB = 0x30C040;
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Map<String, String> options = parseOptions(args);
+
+        int frames = Integer.parseInt(options.getOrDefault("frames", "600"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "60"));
+        String[] size = options.getOrDefault("size", "1280x720").split("x");
+        int width = Integer.parseInt(size[0]);
+        int height = Integer.parseInt(size[1]);
+        int columns = Integer.parseInt(options.getOrDefault("columns", "0"));
+        if (frames <= 0) {
+            throw new IllegalArgumentException("--frames must be positive");
+        }
+
+        String mapResource = options.getOrDefault("map", DEFAULT_MAP);
+        MapData map = GameState.loadMap(mapResource);
+        try {
+            PotentiallyVisibleSet visibility = GameState.loadVisibility(mapResource, map.grid());
+            int extraSprites = Integer.parseInt(options.getOrDefault("sprites", "0"));
+            int raysPerFrame = columns <= 0 ? width : Math.min(columns, width);
+            MemoryRenderTarget target = new MemoryRenderTarget(width, height);
+
+            if (options.containsKey("timedemo")) {
+                InputRecording recording = InputRecording.read(Path.of(options.get("timedemo")));
+                if (recording.getSize() == 0) {
+                    throw new IllegalArgumentException("the input recording is empty");
+                }
+                timedemo(recording, map, visibility, target, raysPerFrame, extraSprites,
+                        Math.min(warmup, recording.getSize()), 0);
+                GameState gameState = timedemo(recording, map, visibility, target, raysPerFrame, extraSprites,
+                        recording.getSize(), recording.getSize());
+                System.out.printf(Locale.ROOT, "player at %.3f, %.3f after %d ticks%n",
+                        gameState.getPlayer().getX(), gameState.getPlayer().getY(), recording.getSize());
+            } else {
+                CameraPath path = options.containsKey("path")
+                        ? CameraPath.parse(Files.readAllLines(Path.of(options.get("path"))))
+                        : defaultPath(map);
+                flythrough(map, visibility, path, target, raysPerFrame, extraSprites, warmup, frames);
+            }
+
+            if (options.containsKey("output")) {
+                Path output = Path.of(options.get("output"));
+                writePng(target.getFramebuffer(), output);
+                System.out.println("last frame written to " + output);
+            }
+        } finally {
+            // releases the mapping of a chunked world
+            if (map.grid() instanceof ChunkedWorld world) {
+                world.close();
+            }
+        }
+    }
+
+    /**
+     * Renders the frames along the camera path and reports their times.
+     */
+    private static void flythrough(MapData map, PotentiallyVisibleSet visibility, CameraPath path,
+                                   MemoryRenderTarget target, int raysPerFrame, int extraSprites, int warmup, int frames) {
+        List<Integer> spriteColors = new ArrayList<>();
+        Sprites sprites = Sprites.fromSpawns(map, spriteColors);
+        if (extraSprites > 0) {
+            int texture = spriteColors.size();
+            scatter(map.grid(), extraSprites, (x, y) -> sprites.add(x, y, Sprites.SPAWN_SCALE, texture));
+            spriteColors.add(SCATTERED_SPRITE_RGB);
+        }
+
+        FrameTimes frameTimes = new FrameTimes(frames);
+        long elapsed;
+        try (SoftwareRenderer renderer = newRenderer(map, visibility, spriteColors)) {
+            for (int frame = 0; frame < warmup; frame++) {
+                render(renderer, target, map, sprites, path.at((double) frame / Math.max(warmup - 1, 1)), raysPerFrame);
+            }
+
+            long start = System.nanoTime();
+            for (int frame = 0; frame < frames; frame++) {
+                long frameStart = System.nanoTime();
+                render(renderer, target, map, sprites, path.at((double) frame / Math.max(frames - 1, 1)), raysPerFrame);
+                frameTimes.record(System.nanoTime() - frameStart);
+            }
+            elapsed = System.nanoTime() - start;
+        }
+        report(target, raysPerFrame, frames, elapsed, frameTimes);
+    }
+
+    /**
+     * Replays the first ticks of the recording on a new game state, rendering the view of the player after every
+     * tick.
+     *
+     * @param ticks         ticks replayed
+     * @param measuredTicks ticks whose times are reported, 0 for a warmup run
+     * @return the game state at the end of the replay
+     */
+    private static GameState timedemo(InputRecording recording, MapData map, PotentiallyVisibleSet visibility,
+                                      MemoryRenderTarget target, int raysPerFrame, int extraSprites,
+                                      int ticks, int measuredTicks) {
+        GameState gameState = new GameState(map);
+        EntityStore entities = gameState.getEntities();
+        if (extraSprites > 0) {
+            int texture = gameState.getSpriteColors().size();
+            scatter(map.grid(), extraSprites, (x, y) -> {
+                int index = entities.index(entities.create(x, y, EntityStore.SPRITE));
+                entities.setSprite(index, texture, Sprites.SPAWN_SCALE);
+            });
+            gameState.getSpriteColors().add(SCATTERED_SPRITE_RGB);
+        }
+
+        double tickSeconds = 1.0 / recording.getTickRate();
+        Player player = gameState.getPlayer();
+        Sprites sprites = gameState.getSprites();
+        FrameTimes frameTimes = new FrameTimes(ticks);
+        long elapsed;
+        try (SoftwareRenderer renderer = newRenderer(map, visibility, gameState.getSpriteColors())) {
+            long start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++) {
+                long frameStart = System.nanoTime();
+                gameState.update(tickSeconds, recording.get(tick));
+                EntitySnapshot snapshot = EntitySnapshot.capture(entities);
+                EntitySnapshot.interpolate(snapshot, snapshot, 1, sprites);
+
+                double yOffset = player.getStatus() == Player.Status.WALKING
+                        ? SoftwareRenderer.walkOffset(player.getDistance())
+                        : 0;
+                Framebuffer framebuffer = target.acquire();
+                renderer.render(framebuffer, player.getX(), player.getY(), player.getRotationX(), player.getRotationY(),
+                        raysPerFrame, Settings.FOV_ANGLE, yOffset, sprites);
+                target.present();
+                frameTimes.record(System.nanoTime() - frameStart);
+            }
+            elapsed = System.nanoTime() - start;
+        }
+        if (measuredTicks > 0) {
+            report(target, raysPerFrame, measuredTicks, elapsed, frameTimes);
+        }
+        return gameState;
+    }
+
+    private static SoftwareRenderer newRenderer(MapData map, PotentiallyVisibleSet visibility,
+                                                List<Integer> spriteColors) {
+        SoftwareRenderer renderer = new SoftwareRenderer(map.grid(), Settings.CAST_THREADS,
+                Settings.TEXTURES ? SoftwareRenderer.newTextures() : null,
+                SoftwareRenderer.newSpriteTextures(spriteColors));
+        renderer.setVisibility(visibility);
+        return renderer;
+    }
+
+    private static void report(MemoryRenderTarget target, int raysPerFrame, int frames, long elapsed,
+                               FrameTimes frameTimes) {
+        frameTimes.sort();
+        Framebuffer framebuffer = target.getFramebuffer();
+        System.out.printf(Locale.ROOT, "%d frames of %dx%d, %d rays, %d cast threads in %.1f ms: %.1f fps%n",
+                frames, framebuffer.getWidth(), framebuffer.getHeight(), raysPerFrame, Settings.CAST_THREADS,
+                elapsed / 1e6, frames * 1e9 / elapsed);
+        System.out.printf(Locale.ROOT, "frame time avg %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                frameTimes.mean() / 1e6, frameTimes.percentile(50) / 1e6, frameTimes.percentile(99) / 1e6,
+                frameTimes.max() / 1e6);
+    }
+
+    private static void render(SoftwareRenderer renderer, MemoryRenderTarget target, MapData map, Sprites sprites,
+                               CameraPath.Pose pose, int columns) {
+        // same as the game loop, so a chunked world streams its chunks in ahead of the camera
+        map.grid().prefetchAround(WorldGrid.toCell(pose.x()), WorldGrid.toCell(pose.y()));
+        Framebuffer framebuffer = target.acquire();
+        renderer.render(framebuffer, pose.x(), pose.y(), pose.rotationX(), pose.rotationY(),
+                columns, Settings.FOV_ANGLE, 0, sprites);
+        target.present();
+    }
+
+    /**
+     * Picks floor cells at random, the same ones on every run, and passes the world position of their centers on.
+     */
+    private static void scatter(WorldGrid grid, int count, BiConsumer<Double, Double> sprite) {
+        Random random = new Random(42);
+        for (int added = 0, attempts = 0; added < count && attempts < count * 100; attempts++) {
+            int cellX = random.nextInt(grid.getWidth());
+            int cellY = random.nextInt(grid.getHeight());
+            if (!grid.isSolid(cellX, cellY)) {
+                sprite.accept((cellX + 0.5) * WorldGrid.CELL_SIZE, (cellY + 0.5) * WorldGrid.CELL_SIZE);
+                added++;
+            }
+        }
+    }
+
+    private static CameraPath defaultPath(MapData map) {
+        return map.findSpawn(MapData.PLAYER_SPAWN_RGB)
+                .map(spawn -> CameraPath.spin(spawn.cellX(), spawn.cellY(), 2))
+                .orElseGet(() -> {
+                    log.warn("the map has no player spawn, spinning at its center");
+                    return CameraPath.spin(map.grid().getWidth() / 2, map.grid().getHeight() / 2, 2);
+                });
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("expected --name=value, got '" + arg + "'");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private static void writePng(Framebuffer framebuffer, Path output) throws IOException {
+        BufferedImage image = new BufferedImage(framebuffer.getWidth(), framebuffer.getHeight(), BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, framebuffer.getWidth(), framebuffer.getHeight(), framebuffer.getPixels(), 0, framebuffer.getWidth());
+        if (!ImageIO.write(image, "png", output.toFile())) {
+            throw new IOException("no PNG writer available");
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package dev.gidan.raycastfx.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Work done on a frame, from the first to the last stage.
+ */
+@Name("dev.gidan.raycastfx.Frame")
+@Label("Frame")
+@Category("RaycastFX")
+@StackTrace(false)
+public class FrameEvent extends Event {
+
+    @Label("Interval")
+    @Description("Time since the start of the previous frame")
+    @Timespan(Timespan.NANOSECONDS)
+    public long interval;
+
+}
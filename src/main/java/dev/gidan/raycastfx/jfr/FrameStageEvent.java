@@ -0,0 +1,17 @@
+package dev.gidan.raycastfx.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * One of the steps of a frame (update, clear, render, minimap).
+ */
+@Name("dev.gidan.raycastfx.FrameStage")
+@Label("Frame Stage")
+@Category("RaycastFX")
+@StackTrace(false)
+public class FrameStageEvent extends Event {
+
+    @Label("Stage")
+    public String stage;
+
+}
@@ -0,0 +1,32 @@
+package dev.gidan.raycastfx.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Casting of all the rays of a frame.
+ */
+@Name("dev.gidan.raycastfx.RayCast")
+@Label("Ray Cast")
+@Category("RaycastFX")
+@StackTrace(false)
+public class RayCastEvent extends Event {
+
+    @Label("Rays")
+    public int rays;
+
+    @Label("Threads")
+    public int threads;
+
+    @Label("Cells Traversed")
+    @Description("Grid cells crossed by all the rays of the frame")
+    public long cellsTraversed;
+
+    @Label("Max Cells Traversed")
+    @Description("Grid cells crossed by the longest ray of the frame")
+    public int maxCellsTraversed;
+
+    @Label("Infinite Rays")
+    @Description("Rays that did not hit anything within the max distance")
+    public int infiniteRays;
+
+}
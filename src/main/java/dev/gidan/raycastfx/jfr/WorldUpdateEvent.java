@@ -0,0 +1,22 @@
+package dev.gidan.raycastfx.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Update of the world state (entity movement and collisions).
+ */
+@Name("dev.gidan.raycastfx.WorldUpdate")
+@Label("World Update")
+@Category("RaycastFX")
+@StackTrace(false)
+public class WorldUpdateEvent extends Event {
+
+    @Label("Collision Checks")
+    @Description("Positions tested against the walls")
+    public int collisionChecks;
+
+    @Label("Body Contacts")
+    @Description("Pairs of overlapping bodies pushed apart")
+    public int bodyContacts;
+
+}
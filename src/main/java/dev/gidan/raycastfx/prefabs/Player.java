@@ -1,15 +1,21 @@
 package dev.gidan.raycastfx.prefabs;
 
-import dev.gidan.raycastfx.GameObject;
-import dev.gidan.raycastfx.Input;
+import dev.gidan.raycastfx.InputSnapshot;
+import dev.gidan.raycastfx.entity.EntityStore;
+import dev.gidan.raycastfx.util.MutableVec2D;
 import dev.gidan.raycastfx.util.Vec2D;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.function.Function;
-
+/**
+ * The entity controlled by the input.
+ * <p>
+ * Its position, velocity and heading live in the {@link EntityStore} like those of any other entity, and are moved
+ * by the same systems; the player only turns the input into a velocity and a heading before the entities move, and
+ * keeps track of its walk cycle.
+ */
 @Slf4j
-public class Player extends GameObject {
+public class Player {
 
     public enum Status {
         IDLE, WALKING
@@ -25,6 +31,16 @@ public class Player extends GameObject {
 
     private static final double MAX_SPEED = 20.0;
 
+    /**
+     * Radius of the body of the player, in world units
+     */
+    public static final double RADIUS = 5.0;
+
+    private final EntityStore entities;
+
+    @Getter
+    private final int entityId;
+
     /**
      * Player current speed
      */
@@ -39,80 +55,119 @@ public class Player extends GameObject {
     @Getter
     private double distance;
 
-    Vec2D previousDirection;
+    private static final double TURN_ANGLE = Math.toRadians(1);
+    private static final double TURN_COS = Math.cos(TURN_ANGLE);
+    private static final double TURN_SIN = Math.sin(TURN_ANGLE);
 
-    public Player() {
-        super(Vec2D.of(INITIAL_PLAYER_POSITION_X, INITIAL_PLAYER_POSITION_Y));
-    }
+    /**
+     * Scratch vectors reused on every update
+     */
+    private final MutableVec2D direction = new MutableVec2D();
+    private final MutableVec2D previousDirection = new MutableVec2D();
 
-    public Player(Vec2D position) {
-        super(position);
+    public Player(EntityStore entities, Vec2D position) {
+        this.entities = entities;
+        this.entityId = entities.create(position.getX(), position.getY(), 0);
+        entities.setRadius(entities.index(entityId), RADIUS);
     }
 
-    @Override
-    public void update(double deltaTimeMillis, final Function<Vec2D, Boolean> nextPositionCallback) {
-        updateWorldPosition(deltaTimeMillis, nextPositionCallback);
-        updateFaceDirection();
-        updateStatus();
+    /**
+     * Sets the velocity and the heading of the player from the input, before the entities move.
+     */
+    public void applyInput(InputSnapshot input) {
+        int index = entities.index(entityId);
+        updateVelocity(index, input);
+        updateFaceDirection(index, input);
     }
 
-    private void updateStatus() {
+    /**
+     * Updates the walk cycle from the outcome of the move. The player stops when a wall blocked its whole move, and
+     * keeps its speed while sliding along a wall.
+     */
+    public void afterMove() {
+        int index = entities.index(entityId);
+        if (entities.hasFlags(index, EntityStore.BLOCKED)
+                && entities.velocityX(index) == 0 && entities.velocityY(index) == 0) {
+            speed = 0;
+        }
         status = speed > 0 ? Status.WALKING : Status.IDLE;
         if (status == Status.WALKING) {
             distance = (distance + speed * 0.2) % 360;
         }
     }
 
-    private void updateWorldPosition(double deltaTime, final Function<Vec2D, Boolean> nextPositionCallback) {
-        Input input = Input.getInstance();
-        Vec2D direction = Vec2D.ZERO;
+    private void updateVelocity(int index, InputSnapshot input) {
+        direction.set(0, 0);
+
+        double rotationX = entities.headingX(index);
+        double rotationY = entities.headingY(index);
 
         if (input.isMovingForward()) {
-            direction = direction.add(rotation);
+            direction.add(rotationX, rotationY);
         }
         if (input.isMovingBackward()) {
-            direction = direction.add(rotation.rotate(Math.PI));
+            // rotation turned by 180 degrees
+            direction.subtract(rotationX, rotationY);
         }
         if (input.isStrafeLeft()) {
-            direction = direction.add(rotation.rotate(Math.PI / 2 * -1));
+            // rotation turned by -90 degrees
+            direction.add(rotationY, -rotationX);
         }
         if (input.isStrafeRight()) {
-            direction = direction.add(rotation.rotate(Math.PI / 2));
+            // rotation turned by 90 degrees
+            direction.add(-rotationY, rotationX);
         }
 
         if (direction.magnitude() > 0) {
-            previousDirection = direction;
+            previousDirection.set(direction);
             speed = Math.min(speed + 0.3, MAX_SPEED);
         } else {
             speed = Math.max(speed - 0.4, 0.0);
         }
 
-        if (speed > 0) {
-            Vec2D nextPotentialPosition = position.add(previousDirection.multiply(deltaTime * speed));
-
-            // if the next potential position is approved, assign it to actual position.
-            // this is used to allow GameState to check collisions before the calculated position becomes valid even if it is potentially colliding with a wall.
-            // simple solution, but if the player is touching a wall, it will stop there. The player movement is not modified by the colliding object.
-            if (nextPositionCallback.apply(nextPotentialPosition)) {
-                position = nextPotentialPosition;
-            } else {
-                speed = 0;
-            }
+        // keeps going in the last direction while slowing down
+        entities.setVelocity(index, previousDirection.getX() * speed, previousDirection.getY() * speed);
+    }
+
+    private void updateFaceDirection(int index, InputSnapshot input) {
+        if (input.isTurningRight() == input.isTurningLeft()) {
+            return;
         }
+
+        double sin = input.isTurningRight() ? TURN_SIN : -TURN_SIN;
+        double rotationX = entities.headingX(index);
+        double rotationY = entities.headingY(index);
+        entities.setHeading(index, rotationX * TURN_COS - rotationY * sin, rotationX * sin + rotationY * TURN_COS);
     }
 
-    private void updateFaceDirection() {
-        Input input = Input.getInstance();
+    public double getX() {
+        return entities.x(entities.index(entityId));
+    }
 
-        double angle = Math.toRadians(1);
+    public double getY() {
+        return entities.y(entities.index(entityId));
+    }
 
-        if (input.isTurningRight()) {
-            rotation = rotation.rotate(angle);
-        }
-        if (input.isTurningLeft()) {
-            rotation = rotation.rotate(-angle);
-        }
+    public double getRotationX() {
+        return entities.headingX(entities.index(entityId));
+    }
+
+    public double getRotationY() {
+        return entities.headingY(entities.index(entityId));
+    }
+
+    /**
+     * @return a copy of the world position
+     */
+    public Vec2D getPosition() {
+        return Vec2D.of(getX(), getY());
     }
 
+    /**
+     * @return a copy of the facing direction
+     */
+    public Vec2D getRotation() {
+        return Vec2D.of(getRotationX(), getRotationY());
+    }
 
 }
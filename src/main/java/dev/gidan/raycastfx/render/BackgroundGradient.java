@@ -0,0 +1,97 @@
+package dev.gidan.raycastfx.render;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+
+/**
+ * Pre-rendered ceiling and floor, shared by the renderers.
+ * <p>
+ * The banded gradient only depends on the size of the frame, so it is rasterized once per size instead of once per
+ * frame. It is {@link #getMargin() margin} rows taller than the frame on both sides: the walk bob moves the horizon by
+ * at most that much, and is applied by picking which rows of the cached gradient end up on screen.
+ */
+@Slf4j
+public class BackgroundGradient {
+
+    private final int baseRgb;
+    private final double ceilingBrightness;
+    private final double floorBrightness;
+    private final int stripeHeight;
+    @Getter
+    private final int margin;
+
+    @Getter
+    private int width;
+    @Getter
+    private int height;
+    /**
+     * ARGB pixels of the gradient, height + 2 * margin rows of width pixels
+     */
+    @Getter
+    private int[] pixels = new int[0];
+
+    /**
+     * @param baseRgb           color of the gradient at full brightness, as 0xRRGGBB
+     * @param ceilingBrightness brightness of the top of the ceiling, from 0 to 1
+     * @param floorBrightness   brightness of the bottom of the floor, from 0 to 1
+     * @param stripeHeight      height of every band of the gradient, in pixels
+     * @param margin            largest vertical shift the gradient can be drawn with
+     */
+    public BackgroundGradient(int baseRgb, double ceilingBrightness, double floorBrightness, int stripeHeight, int margin) {
+        this.baseRgb = baseRgb;
+        this.ceilingBrightness = ceilingBrightness;
+        this.floorBrightness = floorBrightness;
+        this.stripeHeight = stripeHeight;
+        this.margin = margin;
+    }
+
+    /**
+     * Rasterizes the gradient again if the frame size changed.
+     *
+     * @return true if the pixels were rebuilt
+     */
+    public boolean resize(int width, int height) {
+        if (width == this.width && height == this.height) {
+            return false;
+        }
+        this.width = width;
+        this.height = height;
+
+        int rows = height + 2 * margin;
+        int horizon = rows / 2;
+        int ceilingStripes = Math.max(1, (horizon + stripeHeight - 1) / stripeHeight);
+        int floorStripes = Math.max(1, (rows - horizon + stripeHeight - 1) / stripeHeight);
+
+        pixels = new int[width * rows];
+        for (int row = 0; row < rows; row++) {
+            int argb = row < horizon
+                    ? ShadingPalette.shade(baseRgb, ceilingBrightness * (1.0 - (double) (row / stripeHeight) / ceilingStripes))
+                    : ShadingPalette.shade(baseRgb, floorBrightness * (1.0 - (double) ((rows - 1 - row) / stripeHeight) / floorStripes));
+            Arrays.fill(pixels, row * width, (row + 1) * width, argb);
+        }
+        log.debug("background gradient rasterized for {}x{}", width, height);
+        return true;
+    }
+
+    /**
+     * Copies the gradient into the framebuffer, shifted down by yOffset rows.
+     * The framebuffer must have the size the gradient was last {@link #resize resized} to.
+     */
+    public void copyTo(Framebuffer framebuffer, int yOffset) {
+        if (framebuffer.getWidth() != width || framebuffer.getHeight() != height) {
+            throw new IllegalArgumentException("framebuffer is " + framebuffer.getWidth() + "x" + framebuffer.getHeight()
+                    + ", gradient is " + width + "x" + height);
+        }
+        System.arraycopy(pixels, firstRow(yOffset) * width, framebuffer.getPixels(), 0, width * height);
+    }
+
+    /**
+     * @return the row of the gradient shown at the top of the frame when it is shifted down by yOffset rows
+     */
+    public int firstRow(int yOffset) {
+        return margin - Math.max(-margin, Math.min(margin, yOffset));
+    }
+
+}
@@ -0,0 +1,77 @@
+package dev.gidan.raycastfx.render;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Projection of the screen columns on a camera plane.
+ * <p>
+ * Columns are spread evenly on a plane perpendicular to the facing direction, instead of evenly in angle.
+ * The direction of the ray of a column is {@code normalize(rotation + perpendicular * planeOffset)}, and the
+ * distance to the camera plane (used for the projection, without fish eye) is the euclidean distance of the hit
+ * multiplied by the column correction factor.
+ * <p>
+ * Both values only depend on the field of view and on the number of columns, so they are computed in a table
+ * that is rebuilt only when one of them changes.
+ */
+@Slf4j
+public class Camera {
+
+    @Getter
+    private double fovAngle = Double.NaN;
+    @Getter
+    private int columns;
+
+    private double[] planeOffset = new double[0];
+    private double[] correction = new double[0];
+
+    /**
+     * Sets the projection parameters. The table is only recomputed if they differ from the current ones.
+     *
+     * @param fovAngle field of view in degrees
+     * @param columns  number of screen columns
+     */
+    public void configure(double fovAngle, int columns) {
+        if (fovAngle == this.fovAngle && columns == this.columns) {
+            return;
+        }
+        if (columns < 1) {
+            throw new IllegalArgumentException("at least one column is required, got " + columns);
+        }
+
+        double halfPlaneWidth = Math.tan(Math.toRadians(fovAngle / 2));
+        double[] offsets = new double[columns];
+        double[] corrections = new double[columns];
+        for (int column = 0; column < columns; column++) {
+            // -1 on the left edge of the screen, +1 on the right edge
+            double cameraX = columns == 1 ? 0 : 2.0 * column / (columns - 1) - 1;
+            double offset = cameraX * halfPlaneWidth;
+            offsets[column] = offset;
+            // length of (rotation + perpendicular * offset) is sqrt(1 + offset^2), its inverse is the cosine
+            // of the angle between the column ray and the facing direction
+            corrections[column] = 1 / Math.sqrt(1 + offset * offset);
+        }
+
+        this.fovAngle = fovAngle;
+        this.columns = columns;
+        this.planeOffset = offsets;
+        this.correction = corrections;
+        log.debug("camera projection computed for fov {} and {} columns", fovAngle, columns);
+    }
+
+    /**
+     * @return the offset along the camera plane of the given column, for a plane at distance 1 from the camera
+     */
+    public double planeOffset(int column) {
+        return planeOffset[column];
+    }
+
+    /**
+     * @return the factor turning the euclidean length of the column ray into its distance to the camera plane.
+     * It is also the length normalizing factor of the column direction.
+     */
+    public double correction(int column) {
+        return correction[column];
+    }
+
+}
@@ -0,0 +1,212 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.jfr.RayCastEvent;
+import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.util.Vec2D;
+import dev.gidan.raycastfx.world.WorldGrid;
+import dev.gidan.raycastfx.world.RayCaster;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * Casts one ray per screen column.
+ * <p>
+ * With a single thread every column is cast on the calling thread. With more threads the columns are split in
+ * contiguous ranges: the calling thread casts the first range while a fixed set of daemon workers casts the others,
+ * and {@link #cast} returns once every range is done. Each column only depends on its own index, so the results
+ * are the same whatever the number of threads.
+ */
+@Slf4j
+public class ColumnCaster implements AutoCloseable {
+
+    @Getter
+    private final int threads;
+    private final RayCaster[] casters;
+    private final Thread[] workers;
+    private final CyclicBarrier start;
+    private final CyclicBarrier done;
+
+    // frame parameters, published to the workers by the start barrier
+    private double rotationX;
+    private double rotationY;
+    private Camera camera;
+    private int columns;
+    private final RayBuffer rays = new RayBuffer(0);
+
+    // per range statistics of the last cast, reported through RayCastEvent
+    private final long[] rangeCellsTraversed;
+    private final int[] rangeMaxCellsTraversed;
+    private final int[] rangeInfiniteRays;
+
+    private volatile boolean closed;
+    private volatile RuntimeException failure;
+
+    public ColumnCaster(WorldGrid grid, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("at least one thread is required, got " + threads);
+        }
+        this.threads = threads;
+        this.casters = new RayCaster[threads];
+        this.rangeCellsTraversed = new long[threads];
+        this.rangeMaxCellsTraversed = new int[threads];
+        this.rangeInfiniteRays = new int[threads];
+        for (int i = 0; i < threads; i++) {
+            casters[i] = new RayCaster(grid);
+        }
+
+        this.workers = new Thread[threads - 1];
+        this.start = new CyclicBarrier(threads);
+        this.done = new CyclicBarrier(threads);
+        for (int i = 1; i < threads; i++) {
+            final int range = i;
+            Thread worker = new Thread(() -> work(range), "ray-caster-" + i);
+            worker.setDaemon(true);
+            workers[i - 1] = worker;
+            worker.start();
+        }
+        log.debug("column caster started with {} thread(s)", threads);
+    }
+
+    /**
+     * Casts the rays of a frame, one per column of the camera, from left to right.
+     *
+     * @param origin   world position the rays are shot from
+     * @param rotation facing direction, pointing at the center of the field of view
+     * @param camera   projection giving the ray direction of each column
+     * @return the rays of the frame, indexed by column. The buffer is refilled by the next call.
+     */
+    public RayBuffer cast(Vec2D origin, Vec2D rotation, Camera camera) {
+        return cast(origin.getX(), origin.getY(), rotation.getX(), rotation.getY(), camera);
+    }
+
+    /**
+     * Same as {@link #cast(Vec2D, Vec2D, Camera)}, with the origin and the facing direction given as primitives.
+     */
+    public RayBuffer cast(double originX, double originY, double rotationX, double rotationY, Camera camera) {
+        if (closed) {
+            throw new IllegalStateException("column caster has been closed");
+        }
+        RayCastEvent event = new RayCastEvent();
+        event.begin();
+
+        rays.reset(camera.getColumns(), originX, originY);
+        this.rotationX = rotationX;
+        this.rotationY = rotationY;
+        this.camera = camera;
+        this.columns = camera.getColumns();
+
+        if (threads == 1) {
+            castRange(0);
+            commit(event);
+            return rays;
+        }
+
+        await(start);
+        try {
+            castRange(0);
+        } finally {
+            await(done);
+        }
+
+        RuntimeException workerFailure = failure;
+        if (workerFailure != null) {
+            failure = null;
+            throw new IllegalStateException("a ray caster worker failed", workerFailure);
+        }
+        commit(event);
+        return rays;
+    }
+
+    private void commit(RayCastEvent event) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        event.rays = columns;
+        event.threads = threads;
+        for (int range = 0; range < threads; range++) {
+            event.cellsTraversed += rangeCellsTraversed[range];
+            event.maxCellsTraversed = Math.max(event.maxCellsTraversed, rangeMaxCellsTraversed[range]);
+            event.infiniteRays += rangeInfiniteRays[range];
+        }
+        event.commit();
+    }
+
+    private void work(int range) {
+        try {
+            while (!closed) {
+                start.await();
+                if (closed) {
+                    return;
+                }
+                try {
+                    castRange(range);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                done.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (BrokenBarrierException e) {
+            if (!closed) {
+                log.error("ray caster worker stopped", e);
+            }
+        }
+    }
+
+    private void castRange(int range) {
+        RayCaster caster = casters[range];
+        int from = columns * range / threads;
+        int to = columns * (range + 1) / threads;
+        double originX = rays.getOriginX();
+        double originY = rays.getOriginY();
+        long cellsTraversed = 0;
+        int maxCellsTraversed = 0;
+        int infiniteRays = 0;
+
+        for (int column = from; column < to; column++) {
+            // rotation plus its perpendicular (rotation turned by 90 degrees) scaled by the plane offset, normalized
+            double offset = camera.planeOffset(column);
+            double correction = camera.correction(column);
+            double directionX = (rotationX - rotationY * offset) * correction;
+            double directionY = (rotationY + rotationX * offset) * correction;
+
+            if (caster.cast(originX, originY, directionX, directionY, Ray.INFINITE_DISTANCE) == Ray.Status.INFINITE) {
+                infiniteRays++;
+            }
+            rays.set(column, directionX, directionY, correction, caster);
+
+            cellsTraversed += caster.getCellsTraversed();
+            maxCellsTraversed = Math.max(maxCellsTraversed, caster.getCellsTraversed());
+        }
+
+        rangeCellsTraversed[range] = cellsTraversed;
+        rangeMaxCellsTraversed[range] = maxCellsTraversed;
+        rangeInfiniteRays[range] = infiniteRays;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while casting rays", e);
+        } catch (BrokenBarrierException e) {
+            throw new IllegalStateException("ray caster workers are not running", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+}
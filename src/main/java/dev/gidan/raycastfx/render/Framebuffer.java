@@ -0,0 +1,120 @@
+package dev.gidan.raycastfx.render;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * In-memory frame made of packed ARGB pixels, stored row by row.
+ * Drawing primitives clip against the frame bounds, so callers can pass coordinates falling outside of it.
+ */
+public class Framebuffer {
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    @Getter
+    private final int[] pixels;
+
+    public Framebuffer(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("invalid framebuffer size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    public static int argb(int alpha, int red, int green, int blue) {
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+
+    public void clear(int argb) {
+        Arrays.fill(pixels, argb);
+    }
+
+    /**
+     * Fills the rows in [fromY, toY) with a single color.
+     */
+    public void fillRows(int fromY, int toY, int argb) {
+        int from = Math.max(fromY, 0);
+        int to = Math.min(toY, height);
+        if (from < to) {
+            Arrays.fill(pixels, from * width, to * width, argb);
+        }
+    }
+
+    /**
+     * Fills the rectangle starting at (x, y) of the given size.
+     */
+    public void fillRect(int x, int y, int rectWidth, int rectHeight, int argb) {
+        int fromX = Math.max(x, 0);
+        int toX = Math.min(x + rectWidth, width);
+        int fromY = Math.max(y, 0);
+        int toY = Math.min(y + rectHeight, height);
+        if (fromX >= toX) {
+            return;
+        }
+
+        for (int row = fromY; row < toY; row++) {
+            int offset = row * width;
+            Arrays.fill(pixels, offset + fromX, offset + toX, argb);
+        }
+    }
+
+    /**
+     * Stretches a column of source pixels over the rows [y, y + columnHeight) of the columns [x, x + spanWidth),
+     * scaling their colors by the given light. Each row samples the source pixel under its center.
+     *
+     * @param source pixels of the column, top to bottom, at [offset, offset + length)
+     * @param light  from 0 (black) to 256 (unchanged), see {@link ShadingPalette#modulate}
+     */
+    public void drawScaledColumn(int x, int spanWidth, double y, double columnHeight,
+                                 int[] source, int offset, int length, int light) {
+        int fromX = Math.max(x, 0);
+        int toX = Math.min(x + spanWidth, width);
+        int fromY = Math.max((int) Math.ceil(y - 0.5), 0);
+        int toY = Math.min((int) Math.ceil(y + columnHeight - 0.5), height);
+        if (fromX >= toX || fromY >= toY) {
+            return;
+        }
+
+        // position in the source as 16.16 fixed point, stepping once per row
+        double scale = length / columnHeight;
+        long step = (long) (scale * 65536);
+        long position = (long) ((fromY + 0.5 - y) * scale * 65536);
+        int last = offset + length - 1;
+        for (int row = fromY; row < toY; row++, position += step) {
+            int argb = ShadingPalette.modulate(source[Math.min(offset + (int) (position >> 16), last)], light);
+            int pixel = row * width;
+            for (int column = fromX; column < toX; column++) {
+                pixels[pixel + column] = argb;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #drawScaledColumn} on a single pixel column, leaving the pixels under the source pixels whose
+     * alpha is below one half untouched. The drawn pixels are opaque.
+     */
+    public void drawMaskedColumn(int x, double y, double columnHeight, int[] source, int offset, int length, int light) {
+        int fromY = Math.max((int) Math.ceil(y - 0.5), 0);
+        int toY = Math.min((int) Math.ceil(y + columnHeight - 0.5), height);
+        if (x < 0 || x >= width || fromY >= toY) {
+            return;
+        }
+
+        double scale = length / columnHeight;
+        long step = (long) (scale * 65536);
+        long position = (long) ((fromY + 0.5 - y) * scale * 65536);
+        int last = offset + length - 1;
+        for (int row = fromY; row < toY; row++, position += step) {
+            int texel = source[Math.min(offset + (int) (position >> 16), last)];
+            if (texel >>> 31 != 0) {
+                pixels[row * width + x] = ShadingPalette.modulate(texel, light) | 0xFF000000;
+            }
+        }
+    }
+
+}
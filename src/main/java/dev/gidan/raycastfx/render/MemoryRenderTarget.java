@@ -0,0 +1,31 @@
+package dev.gidan.raycastfx.render;
+
+import lombok.Getter;
+
+/**
+ * Render target keeping the frames in memory, for rendering without a window.
+ * Presenting a frame only counts it; the last frame stays readable through {@link #getFramebuffer()}.
+ */
+public class MemoryRenderTarget implements RenderTarget {
+
+    @Getter
+    private final Framebuffer framebuffer;
+
+    @Getter
+    private long presentedFrames;
+
+    public MemoryRenderTarget(int width, int height) {
+        this.framebuffer = new Framebuffer(width, height);
+    }
+
+    @Override
+    public Framebuffer acquire() {
+        return framebuffer;
+    }
+
+    @Override
+    public void present() {
+        presentedFrames++;
+    }
+
+}
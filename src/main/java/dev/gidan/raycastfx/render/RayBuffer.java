@@ -0,0 +1,132 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.world.RayCaster;
+import lombok.Getter;
+
+/**
+ * Results of the rays cast for a frame, stored as parallel primitive arrays indexed by column.
+ * <p>
+ * The buffer is allocated once and refilled in place on every frame: it only grows when more columns than ever
+ * before are requested, so steady-state frames do not allocate anything for their rays.
+ * All rays of a frame share the same origin.
+ */
+public class RayBuffer {
+
+    private static final Ray.Status[] STATUSES = Ray.Status.values();
+
+    @Getter
+    private int size;
+    @Getter
+    private double originX;
+    @Getter
+    private double originY;
+
+    private double[] directionX;
+    private double[] directionY;
+    private double[] hitX;
+    private double[] hitY;
+    private double[] distance;
+    private double[] depth;
+    private byte[] status;
+    private byte[] side;
+    private byte[] cell;
+
+    public RayBuffer(int capacity) {
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        directionX = new double[capacity];
+        directionY = new double[capacity];
+        hitX = new double[capacity];
+        hitY = new double[capacity];
+        distance = new double[capacity];
+        depth = new double[capacity];
+        status = new byte[capacity];
+        side = new byte[capacity];
+        cell = new byte[capacity];
+    }
+
+    public int capacity() {
+        return status.length;
+    }
+
+    /**
+     * Prepares the buffer for a new frame of the given number of rays.
+     */
+    void reset(int size, double originX, double originY) {
+        if (size > capacity()) {
+            allocate(size);
+        }
+        this.size = size;
+        this.originX = originX;
+        this.originY = originY;
+    }
+
+    /**
+     * Stores the outcome of the last cast of the given caster.
+     *
+     * @param correction factor turning the euclidean distance into the distance to the camera plane
+     */
+    void set(int ray, double directionX, double directionY, double correction, RayCaster caster) {
+        this.directionX[ray] = directionX;
+        this.directionY[ray] = directionY;
+        this.hitX[ray] = caster.getHitX();
+        this.hitY[ray] = caster.getHitY();
+        this.distance[ray] = caster.getDistance();
+        this.depth[ray] = caster.getDistance() * correction;
+        this.status[ray] = (byte) caster.getStatus().ordinal();
+        this.side[ray] = caster.getSide();
+        this.cell[ray] = caster.getCell();
+    }
+
+    public double directionX(int ray) {
+        return directionX[ray];
+    }
+
+    public double directionY(int ray) {
+        return directionY[ray];
+    }
+
+    public double hitX(int ray) {
+        return hitX[ray];
+    }
+
+    public double hitY(int ray) {
+        return hitY[ray];
+    }
+
+    /**
+     * @return distance from the origin to the hit point, {@link Ray#INFINITE_DISTANCE} if nothing has been hit
+     */
+    public double distance(int ray) {
+        return distance[ray];
+    }
+
+    /**
+     * @return distance of the hit point from the camera plane, which is what the wall projection is based on
+     */
+    public double depth(int ray) {
+        return depth[ray];
+    }
+
+    public Ray.Status status(int ray) {
+        return STATUSES[status[ray]];
+    }
+
+    /**
+     * @return one of the {@code RayCaster.SIDE_*} constants
+     */
+    public byte side(int ray) {
+        return side[ray];
+    }
+
+    /**
+     * @return content of the grid cell that has been hit, the wall type
+     */
+    public byte cell(int ray) {
+        return cell[ray];
+    }
+
+}
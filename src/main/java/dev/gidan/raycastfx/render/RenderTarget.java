@@ -0,0 +1,22 @@
+package dev.gidan.raycastfx.render;
+
+/**
+ * Surface the {@link SoftwareRenderer} draws frames onto.
+ * <p>
+ * A frame is rasterized into the framebuffer returned by {@link #acquire()} and shown by {@link #present()}, so the
+ * renderer does not need to know whether the pixels end up in a window or stay in memory.
+ */
+public interface RenderTarget {
+
+    /**
+     * @return the framebuffer the next frame is rasterized into, sized to the target, or null if the target has no
+     * visible area
+     */
+    Framebuffer acquire();
+
+    /**
+     * Shows the frame rasterized into the last acquired framebuffer.
+     */
+    void present();
+
+}
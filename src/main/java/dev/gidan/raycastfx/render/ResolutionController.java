@@ -0,0 +1,83 @@
+package dev.gidan.raycastfx.render;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adapts the number of rendered columns to hold a frame time budget.
+ * <p>
+ * Frame times are averaged over a window of frames, and a decision is taken only once per full window:
+ * the resolution goes down when the average exceeds the budget, and up only when it stays well below it.
+ * The gap between the two thresholds, the window and a cooldown after each change keep the resolution from
+ * flickering between two steps.
+ */
+@Slf4j
+public class ResolutionController {
+
+    static final int WINDOW_FRAMES = 30;
+    static final int COOLDOWN_WINDOWS = 2;
+    private static final double DOWNSCALE_THRESHOLD = 1.0;
+    private static final double UPSCALE_THRESHOLD = 0.7;
+    private static final double DOWNSCALE_FACTOR = 0.8;
+    private static final double UPSCALE_FACTOR = 1.15;
+    private static final int COLUMN_ALIGNMENT = 8;
+
+    @Getter
+    private final long budgetNanos;
+    private final int minColumns;
+
+    private long windowNanos;
+    private int windowFrames;
+    private int cooldownWindows;
+
+    /**
+     * @param budgetMillis target frame time, in milliseconds
+     * @param minColumns   the resolution never goes below this number of columns
+     */
+    public ResolutionController(double budgetMillis, int minColumns) {
+        this.budgetNanos = (long) (budgetMillis * 1_000_000);
+        this.minColumns = minColumns;
+    }
+
+    /**
+     * Records the time spent on a frame and returns the number of columns to render next.
+     *
+     * @param frameNanos time spent producing the last frame
+     * @param columns    number of columns of the last frame
+     * @param maxColumns upper bound of the resolution, usually one column per pixel
+     */
+    public int update(long frameNanos, int columns, int maxColumns) {
+        windowNanos += frameNanos;
+        windowFrames++;
+        if (windowFrames < WINDOW_FRAMES) {
+            return columns;
+        }
+
+        double load = (double) windowNanos / windowFrames / budgetNanos;
+        windowNanos = 0;
+        windowFrames = 0;
+
+        // the frame times of the windows following a change still reflect the previous resolution in part, in both
+        // directions
+        int next = columns;
+        if (cooldownWindows > 0) {
+            cooldownWindows--;
+        } else if (load > DOWNSCALE_THRESHOLD) {
+            next = align(columns * DOWNSCALE_FACTOR);
+        } else if (load < UPSCALE_THRESHOLD) {
+            next = align(columns * UPSCALE_FACTOR);
+        }
+
+        next = Math.max(Math.min(next, maxColumns), Math.min(minColumns, maxColumns));
+        if (next != columns) {
+            cooldownWindows = COOLDOWN_WINDOWS;
+            log.debug("frame load {}, render columns {} -> {}", String.format("%.2f", load), columns, next);
+        }
+        return next;
+    }
+
+    private static int align(double columns) {
+        return (int) Math.round(columns / COLUMN_ALIGNMENT) * COLUMN_ALIGNMENT;
+    }
+
+}
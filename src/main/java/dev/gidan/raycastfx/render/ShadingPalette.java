@@ -0,0 +1,136 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.RayCaster;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * Lookup table of the packed ARGB colors of wall columns, by wall type, face side and distance.
+ * <p>
+ * Walls get darker with distance, as an HSB color whose brightness is {@code 10 / distance}. The table holds every
+ * shade precomputed for distances quantized to {@link #STEPS_PER_UNIT} steps per world unit, so shading a column is
+ * an index computation and an array read, whatever the number of columns.
+ * Faces crossed along the y axis are darkened by a constant factor, which makes corners readable.
+ */
+public class ShadingPalette {
+
+    /**
+     * Quantization steps per world unit of distance
+     */
+    public static final int STEPS_PER_UNIT = 8;
+
+    /**
+     * Distance up to which walls are drawn at full brightness
+     */
+    public static final double FULL_BRIGHTNESS_DISTANCE = 10;
+
+    private static final int SIDES = 3;
+    private static final int STEPS = (int) (Ray.INFINITE_DISTANCE * STEPS_PER_UNIT) + 1;
+
+    private final int types;
+    @Getter
+    private final double sideDarkening;
+    private final int[] argb;
+
+    /**
+     * @param baseRgbByType color at full brightness of every wall type, indexed by grid cell content, as 0xRRGGBB
+     * @param sideDarkening brightness factor of the faces crossed along the y axis, 1 for none
+     */
+    public ShadingPalette(int[] baseRgbByType, double sideDarkening) {
+        if (baseRgbByType.length <= OccupancyGrid.WALL) {
+            throw new IllegalArgumentException("no color for the default wall type " + OccupancyGrid.WALL);
+        }
+        this.types = baseRgbByType.length;
+        this.sideDarkening = sideDarkening;
+        this.argb = new int[types * SIDES * STEPS];
+
+        for (int type = 0; type < types; type++) {
+            for (int side = 0; side < SIDES; side++) {
+                double sideFactor = side == RayCaster.SIDE_HORIZONTAL ? sideDarkening : 1;
+                for (int step = 0; step < STEPS; step++) {
+                    double distance = (double) step / STEPS_PER_UNIT;
+                    double brightness = distance <= FULL_BRIGHTNESS_DISTANCE ? 1 : FULL_BRIGHTNESS_DISTANCE / distance;
+                    argb[(type * SIDES + side) * STEPS + step] = shade(baseRgbByType[type], brightness * sideFactor);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a palette of white walls, whose entries give the brightness of any wall as their channels, from 0 to 255
+     */
+    public static ShadingPalette white(double sideDarkening) {
+        int[] white = new int[OccupancyGrid.WALL + 1];
+        Arrays.fill(white, 0xFFFFFF);
+        return new ShadingPalette(white, sideDarkening);
+    }
+
+    /**
+     * @return the number of entries of the table, the upper bound of {@link #index}
+     */
+    public int size() {
+        return argb.length;
+    }
+
+    /**
+     * @param type     grid cell content of the wall, types without a color are shaded as {@link OccupancyGrid#WALL}
+     * @param side     one of the {@code RayCaster.SIDE_*} constants
+     * @param distance distance of the wall from the camera plane
+     * @return the position of the shade in the table
+     */
+    public int index(byte type, byte side, double distance) {
+        int typeIndex = (type & 0xFF) < types ? type & 0xFF : OccupancyGrid.WALL;
+        int step = (int) (distance * STEPS_PER_UNIT + 0.5);
+        step = step < 0 ? 0 : Math.min(step, STEPS - 1);
+        return (typeIndex * SIDES + side) * STEPS + step;
+    }
+
+    /**
+     * @return the packed ARGB color at the given position of the table
+     */
+    public int argb(int index) {
+        return argb[index];
+    }
+
+    public int argb(byte type, byte side, double distance) {
+        return argb[index(type, side, distance)];
+    }
+
+    /**
+     * Scales a color to the given brightness, as the value component of an HSB color with the same hue and saturation.
+     *
+     * @param rgb        color at full brightness, as 0xRRGGBB
+     * @param brightness from 0 to 1, clamped
+     * @return the opaque packed ARGB color
+     */
+    public static int shade(int rgb, double brightness) {
+        int red = (rgb >> 16) & 0xFF;
+        int green = (rgb >> 8) & 0xFF;
+        int blue = rgb & 0xFF;
+        int max = Math.max(red, Math.max(green, blue));
+        if (max == 0) {
+            return Framebuffer.argb(255, 0, 0, 0);
+        }
+
+        double scale = Math.max(0, Math.min(1, brightness)) * 255 / max;
+        return Framebuffer.argb(255,
+                (int) Math.round(red * scale),
+                (int) Math.round(green * scale),
+                (int) Math.round(blue * scale));
+    }
+
+    /**
+     * Scales the color channels of a packed ARGB color, keeping its alpha.
+     *
+     * @param light from 0 (black) to 256 (unchanged)
+     */
+    public static int modulate(int argb, int light) {
+        int redBlue = (((argb & 0xFF00FF) * light) >>> 8) & 0xFF00FF;
+        int green = (((argb & 0x00FF00) * light) >>> 8) & 0x00FF00;
+        return (argb & 0xFF000000) | redBlue | green;
+    }
+
+}
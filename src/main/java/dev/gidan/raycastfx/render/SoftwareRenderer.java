@@ -0,0 +1,229 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.PotentiallyVisibleSet;
+import dev.gidan.raycastfx.world.RayCaster;
+import dev.gidan.raycastfx.world.VisibleCells;
+import dev.gidan.raycastfx.world.WorldGrid;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rasterizes the first person view of a {@link WorldGrid} into a {@link Framebuffer}.
+ * <p>
+ * The renderer only depends on the world and on plain pixel arrays, not on JavaFX, so the same pipeline drives the
+ * game window and the headless runner.
+ * <p>
+ * Walls are either flat shaded from the {@link ShadingPalette} or, given a {@link TextureAtlas}, textured: the texture
+ * column comes from the offset of the hit point along the wall face, and its mip level from the projected height of
+ * the column. Textured walls are shaded by the same distance and side rules as flat ones.
+ * <p>
+ * The wall pass leaves the depth of every pixel column in a depth buffer, against which the {@link SpriteRenderer}
+ * then clips the sprites. Given the {@link PotentiallyVisibleSet} of the world, the sprites standing on cells out of
+ * sight of the camera cell are skipped before being projected.
+ */
+public class SoftwareRenderer implements AutoCloseable {
+
+    /**
+     * Largest vertical shift of the view while walking, in pixels
+     */
+    public static final double WALK_MAX_Y_OFFSET = 5.0;
+
+    /**
+     * Brightness of the wall faces crossed along the y axis, relative to the others
+     */
+    public static final double SIDE_DARKENING = 0.75;
+
+    private final ColumnCaster columnCaster;
+    private final Camera camera = new Camera();
+    private final BackgroundGradient background = newBackground();
+    private final ShadingPalette palette = newPalette();
+
+    /**
+     * Wall textures, null to draw flat shaded walls
+     */
+    private final TextureAtlas textures;
+
+    /**
+     * Light of the textured walls, the shades of a white wall
+     */
+    private final ShadingPalette lights;
+
+    /**
+     * Draws the sprites, null if there are no sprite images
+     */
+    private final SpriteRenderer spriteRenderer;
+
+    /**
+     * Distance to the camera plane of the wall drawn on every pixel column, infinite where no wall has been hit
+     */
+    private double[] depthBuffer = new double[0];
+
+    /**
+     * Cells potentially visible from every cell of the world, null to project every sprite
+     */
+    private PotentiallyVisibleSet visibility;
+    private final VisibleCells visibleCells = new VisibleCells();
+
+    public SoftwareRenderer(WorldGrid grid, int castThreads) {
+        this(grid, castThreads, null, null);
+    }
+
+    /**
+     * @param textures       wall textures, wall type n using texture n - 1 or the last one; null for flat shaded walls
+     * @param spriteTextures images of the sprites, null to draw no sprite
+     */
+    public SoftwareRenderer(WorldGrid grid, int castThreads, TextureAtlas textures, TextureAtlas spriteTextures) {
+        this.columnCaster = new ColumnCaster(grid, castThreads);
+        this.textures = textures;
+        this.lights = textures != null ? ShadingPalette.white(SIDE_DARKENING) : null;
+        this.spriteRenderer = spriteTextures != null ? new SpriteRenderer(spriteTextures) : null;
+    }
+
+    /**
+     * @param visibility cells potentially visible from every cell of the world, null to project every sprite
+     */
+    public void setVisibility(PotentiallyVisibleSet visibility) {
+        this.visibility = visibility;
+    }
+
+    /**
+     * Renders a frame of the walls only.
+     */
+    public RayBuffer render(Framebuffer framebuffer, double originX, double originY, double rotationX, double rotationY,
+                            int columns, double fovAngle, double yOffset) {
+        return render(framebuffer, originX, originY, rotationX, rotationY, columns, fovAngle, yOffset, null);
+    }
+
+    /**
+     * Renders a frame seen from the given point of view.
+     *
+     * @param columns  number of rays, at most one per pixel column
+     * @param fovAngle horizontal field of view, in degrees
+     * @param yOffset  vertical shift of the view, in pixels
+     * @param sprites  billboards to draw over the walls, null for none
+     * @return the rays cast for the frame, valid until the next call
+     */
+    public RayBuffer render(Framebuffer framebuffer, double originX, double originY, double rotationX, double rotationY,
+                            int columns, double fovAngle, double yOffset, Sprites sprites) {
+        int width = framebuffer.getWidth();
+        int height = framebuffer.getHeight();
+        // rebuilds the gradient only when the frame size changes
+        background.resize(width, height);
+
+        // overwrites the whole frame, so no clear is needed
+        background.copyTo(framebuffer, (int) Math.round(yOffset));
+
+        camera.configure(fovAngle, columns);
+        RayBuffer rays = columnCaster.cast(originX, originY, rotationX, rotationY, camera);
+
+        if (depthBuffer.length != width) {
+            depthBuffer = new double[width];
+        }
+
+        double halfHeight = height / 2.0;
+        for (int column = 0; column < columns; column++) {
+            // pixel columns covered by this ray
+            int x = column * width / columns;
+            int spanWidth = (column + 1) * width / columns - x;
+            if (rays.status(column) != Ray.Status.COLLIDING) {
+                Arrays.fill(depthBuffer, x, x + spanWidth, Double.POSITIVE_INFINITY);
+            } else {
+                double distance = rays.depth(column);
+                double lineHeight = (1 / Math.max(distance, 1)) * height * 10;
+                Arrays.fill(depthBuffer, x, x + spanWidth, distance);
+                if (textures != null) {
+                    drawTexturedColumn(framebuffer, rays, column, x, spanWidth,
+                            halfHeight - lineHeight / 2 + yOffset, lineHeight);
+                } else {
+                    int argb = palette.argb(rays.cell(column), rays.side(column), distance);
+                    int top = (int) (halfHeight - lineHeight / 2 + yOffset);
+                    framebuffer.fillRect(x, top, spanWidth, (int) Math.ceil(lineHeight), argb);
+                }
+            }
+        }
+
+        if (sprites != null && spriteRenderer != null && sprites.getSize() > 0) {
+            VisibleCells visible = null;
+            if (visibility != null) {
+                visibility.visibleFrom(WorldGrid.toCell(originX), WorldGrid.toCell(originY), visibleCells);
+                visible = visibleCells;
+            }
+            spriteRenderer.draw(framebuffer, sprites, depthBuffer, originX, originY, rotationX, rotationY,
+                    Math.tan(Math.toRadians(fovAngle / 2)), yOffset, visible);
+        }
+        return rays;
+    }
+
+    private void drawTexturedColumn(Framebuffer framebuffer, RayBuffer rays, int column, int x, int spanWidth,
+                                    double top, double lineHeight) {
+        byte type = rays.cell(column);
+        int texture = Math.max(Math.min(type & 0xFF, textures.getTextures()) - 1, 0);
+        int level = textures.levelFor(lineHeight);
+        int offset = textures.columnOffset(texture, level, textureU(rays, column));
+
+        // the lights are shades of white, so any channel holds the brightness
+        int brightness = lights.argb(type, rays.side(column), rays.depth(column)) & 0xFF;
+        framebuffer.drawScaledColumn(x, spanWidth, top, lineHeight, textures.getTexels(), offset,
+                textures.levelSize(level), brightness + (brightness >> 7));
+    }
+
+    /**
+     * @return the horizontal texture coordinate of the hit point of the ray, from 0 to 1 along the wall face, oriented
+     * so that textures are not mirrored on opposite faces
+     */
+    static double textureU(RayBuffer rays, int ray) {
+        boolean vertical = rays.side(ray) == RayCaster.SIDE_VERTICAL;
+        double along = vertical ? rays.hitY(ray) : rays.hitX(ray);
+        double u = along / WorldGrid.CELL_SIZE - Math.floor(along / WorldGrid.CELL_SIZE);
+        boolean mirrored = vertical ? rays.directionX(ray) < 0 : rays.directionY(ray) > 0;
+        return mirrored ? 1 - u : u;
+    }
+
+    @Override
+    public void close() {
+        columnCaster.close();
+    }
+
+    /**
+     * @param walkDistance distance walked, advancing the walk cycle by one degree per world unit
+     * @return the vertical shift of the view at the given point of the walk cycle
+     */
+    public static double walkOffset(double walkDistance) {
+        return Math.sin(Math.toRadians(walkDistance)) * WALK_MAX_Y_OFFSET;
+    }
+
+    /**
+     * @return the ceiling and floor gradient drawn behind the walls, dark gray bands brightening towards the edges
+     */
+    public static BackgroundGradient newBackground() {
+        return new BackgroundGradient(0x808080, 0.15, 0.25, 5, (int) Math.ceil(WALK_MAX_Y_OFFSET));
+    }
+
+    /**
+     * @return the shades of the wall columns, red walls
+     */
+    public static ShadingPalette newPalette() {
+        int[] baseRgbByType = new int[OccupancyGrid.WALL + 1];
+        baseRgbByType[OccupancyGrid.WALL] = 0xFF0000;
+        return new ShadingPalette(baseRgbByType, SIDE_DARKENING);
+    }
+
+    /**
+     * @param colors color of every sprite texture, as 0xRRGGBB
+     * @return the sprite images, a ball of each color, or null if there is no sprite texture
+     */
+    public static TextureAtlas newSpriteTextures(List<Integer> colors) {
+        return colors.isEmpty() ? null : SpriteRenderer.orbs(64, colors);
+    }
+
+    /**
+     * @return the wall textures, red bricks
+     */
+    public static TextureAtlas newTextures() {
+        return new TextureAtlas(64, List.of(TextureAtlas.bricks(64, 0xC03020, 0x8C8C8C)));
+    }
+
+}
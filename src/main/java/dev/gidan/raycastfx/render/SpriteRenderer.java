@@ -0,0 +1,194 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.RayCaster;
+import dev.gidan.raycastfx.world.VisibleCells;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Draws {@link Sprites} over the walls of a frame, as billboards always facing the camera.
+ * <p>
+ * The walls leave the distance to the camera plane of every pixel column in a depth buffer. Sprites whose cells are
+ * all out of sight of the camera, behind the camera, outside of the field of view or behind the walls on every
+ * column they cover are culled first. The others are sorted far to near, by a primitive sort of keys packing the
+ * depth and the index of each sprite, and drawn column by column, skipping the columns where a wall is nearer and
+ * the transparent texels.
+ */
+public class SpriteRenderer {
+
+    /**
+     * Sprites nearer to the camera plane are culled, in world units
+     */
+    static final double NEAR_DEPTH = 1;
+
+    private final TextureAtlas textures;
+    private final ShadingPalette lights = ShadingPalette.white(1);
+
+    // projection of the visible sprites, indexed by sprite
+    private double[] depth = new double[0];
+    private double[] left = new double[0];
+    private double[] spriteSize = new double[0];
+    private double[] bottom = new double[0];
+    private long[] order = new long[0];
+
+    @Getter
+    private int visibleSprites;
+    @Getter
+    private int culledSprites;
+
+    /**
+     * @param textures images of the sprites, transparent where their alpha is below one half
+     */
+    public SpriteRenderer(TextureAtlas textures) {
+        this.textures = textures;
+    }
+
+    /**
+     * Draws the sprites without visibility information.
+     */
+    public void draw(Framebuffer framebuffer, Sprites sprites, double[] depthBuffer,
+                     double originX, double originY, double rotationX, double rotationY,
+                     double halfPlaneWidth, double yOffset) {
+        draw(framebuffer, sprites, depthBuffer, originX, originY, rotationX, rotationY, halfPlaneWidth, yOffset, null);
+    }
+
+    /**
+     * @param depthBuffer    distance to the camera plane of the nearest wall of every pixel column
+     * @param halfPlaneWidth half width of the camera plane at distance 1, {@code tan(fov / 2)}
+     * @param yOffset        vertical shift of the view, in pixels
+     * @param visibleCells   cells potentially visible from the camera, null to consider every sprite
+     */
+    public void draw(Framebuffer framebuffer, Sprites sprites, double[] depthBuffer,
+                     double originX, double originY, double rotationX, double rotationY,
+                     double halfPlaneWidth, double yOffset, VisibleCells visibleCells) {
+        int width = framebuffer.getWidth();
+        int height = framebuffer.getHeight();
+        ensureCapacity(sprites.getSize());
+
+        // half width of a sprite of scale 1 in world units, as wide as it is drawn high
+        double halfWorldWidth = 10 * halfPlaneWidth * height / width;
+
+        int visible = 0;
+        for (int sprite = 0; sprite < sprites.getSize(); sprite++) {
+            if (visibleCells != null && !visibleCells.containsAround(sprites.x(sprite), sprites.y(sprite),
+                    halfWorldWidth * sprites.scale(sprite))) {
+                continue;
+            }
+            double dx = sprites.x(sprite) - originX;
+            double dy = sprites.y(sprite) - originY;
+            // coordinates in camera space: along the facing direction and along the camera plane
+            double spriteDepth = dx * rotationX + dy * rotationY;
+            if (spriteDepth < NEAR_DEPTH) {
+                continue;
+            }
+            double lateral = dy * rotationX - dx * rotationY;
+
+            double lineHeight = height * 10 / spriteDepth;
+            double size = lineHeight * sprites.scale(sprite);
+            double centerX = (lateral / (spriteDepth * halfPlaneWidth) + 1) / 2 * width;
+            double spriteLeft = centerX - size / 2;
+            if (spriteLeft + size <= 0 || spriteLeft >= width
+                    || occluded(depthBuffer, spriteLeft, spriteLeft + size, spriteDepth)) {
+                continue;
+            }
+
+            depth[sprite] = spriteDepth;
+            left[sprite] = spriteLeft;
+            spriteSize[sprite] = size;
+            // standing on the floor, where the bottom of the walls at the same distance is
+            bottom[sprite] = height / 2.0 + lineHeight / 2 + yOffset;
+            // positive floats sort as their raw bits, so the keys sort by depth and then by index
+            order[visible++] = ((long) Float.floatToRawIntBits((float) spriteDepth) << 32) | sprite;
+        }
+        visibleSprites = visible;
+        culledSprites = sprites.getSize() - visible;
+
+        Arrays.sort(order, 0, visible);
+        for (int i = visible - 1; i >= 0; i--) {
+            int sprite = (int) order[i];
+            drawSprite(framebuffer, depthBuffer, sprites.texture(sprite), depth[sprite],
+                    left[sprite], spriteSize[sprite], bottom[sprite]);
+        }
+    }
+
+    /**
+     * @return true if a wall is nearer than the sprite on every pixel column in [fromX, toX)
+     */
+    private static boolean occluded(double[] depthBuffer, double fromX, double toX, double spriteDepth) {
+        int from = Math.max(firstColumn(fromX), 0);
+        int to = Math.min(firstColumn(toX), depthBuffer.length);
+        for (int x = from; x < to; x++) {
+            if (depthBuffer[x] > spriteDepth) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void drawSprite(Framebuffer framebuffer, double[] depthBuffer, int texture, double spriteDepth,
+                            double spriteLeft, double size, double spriteBottom) {
+        int level = textures.levelFor(size);
+        int levelSize = textures.levelSize(level);
+        int brightness = lights.argb(OccupancyGrid.WALL, RayCaster.SIDE_NONE, spriteDepth) & 0xFF;
+        int light = brightness + (brightness >> 7);
+
+        int from = Math.max(firstColumn(spriteLeft), 0);
+        int to = Math.min(firstColumn(spriteLeft + size), framebuffer.getWidth());
+        for (int x = from; x < to; x++) {
+            if (depthBuffer[x] <= spriteDepth) {
+                continue;
+            }
+            int offset = textures.columnOffset(texture, level, (x + 0.5 - spriteLeft) / size);
+            framebuffer.drawMaskedColumn(x, spriteBottom - size, size, textures.getTexels(), offset, levelSize, light);
+        }
+    }
+
+    /**
+     * @return the first pixel column whose center is at or after the given position
+     */
+    private static int firstColumn(double x) {
+        return (int) Math.ceil(x - 0.5);
+    }
+
+    private void ensureCapacity(int sprites) {
+        if (depth.length < sprites) {
+            depth = new double[sprites];
+            left = new double[sprites];
+            spriteSize = new double[sprites];
+            bottom = new double[sprites];
+            order = new long[sprites];
+        }
+    }
+
+    /**
+     * Generates a sprite image for every color, a shaded ball on a transparent background.
+     *
+     * @param colors color of every sprite, as 0xRRGGBB
+     */
+    public static TextureAtlas orbs(int size, List<Integer> colors) {
+        List<int[]> images = new ArrayList<>();
+        for (int rgb : colors) {
+            int[] texels = new int[size * size];
+            double radius = size / 2.0;
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    double dx = (x + 0.5 - radius) / radius;
+                    double dy = (y + 0.5 - radius) / radius;
+                    double distance = Math.sqrt(dx * dx + dy * dy);
+                    if (distance <= 1) {
+                        // lit from the top left
+                        double light = 0.5 + 0.5 * Math.max(0, 1 - Math.hypot(dx + 0.35, dy + 0.35));
+                        texels[y * size + x] = ShadingPalette.modulate(0xFF000000 | rgb, (int) (light * 256));
+                    }
+                }
+            }
+            images.add(texels);
+        }
+        return new TextureAtlas(size, images);
+    }
+
+}
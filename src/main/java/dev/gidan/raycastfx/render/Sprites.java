@@ -0,0 +1,105 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.world.MapData;
+import dev.gidan.raycastfx.world.WorldGrid;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Billboards standing in the world, stored as parallel primitive arrays indexed by sprite.
+ * <p>
+ * Like the {@link RayBuffer}, the arrays only grow, so the sprites can be cleared and refilled on every frame
+ * without allocating.
+ */
+public class Sprites {
+
+    /**
+     * Height relative to the walls of the sprites placed on spawn cells
+     */
+    public static final double SPAWN_SCALE = 0.5;
+
+    @Getter
+    private int size;
+
+    private double[] x = new double[16];
+    private double[] y = new double[16];
+    private double[] scale = new double[16];
+    private int[] texture = new int[16];
+
+    /**
+     * Adds a sprite standing on the floor.
+     *
+     * @param x       world position, in world units
+     * @param y       world position, in world units
+     * @param scale   height of the sprite relative to the walls
+     * @param texture index of the sprite image in the sprite atlas
+     */
+    public void add(double x, double y, double scale, int texture) {
+        if (size == this.x.length) {
+            int capacity = size * 2;
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.scale = Arrays.copyOf(this.scale, capacity);
+            this.texture = Arrays.copyOf(this.texture, capacity);
+        }
+        this.x[size] = x;
+        this.y[size] = y;
+        this.scale[size] = scale;
+        this.texture[size] = texture;
+        size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public double x(int sprite) {
+        return x[sprite];
+    }
+
+    public double y(int sprite) {
+        return y[sprite];
+    }
+
+    public double scale(int sprite) {
+        return scale[sprite];
+    }
+
+    public int texture(int sprite) {
+        return texture[sprite];
+    }
+
+    /**
+     * Places a sprite in the center of every spawn cell of the map but the player's, one texture per spawn color.
+     *
+     * @param colors color of every sprite texture, as 0xRRGGBB, in texture order; colors without a texture yet are
+     *               appended
+     */
+    public static Sprites fromSpawns(MapData map, List<Integer> colors) {
+        Sprites sprites = new Sprites();
+        for (MapData.Spawn spawn : map.spawns()) {
+            if (spawn.rgb() == MapData.PLAYER_SPAWN_RGB) {
+                continue;
+            }
+            sprites.add((spawn.cellX() + 0.5) * WorldGrid.CELL_SIZE, (spawn.cellY() + 0.5) * WorldGrid.CELL_SIZE,
+                    SPAWN_SCALE, textureIndex(colors, spawn.rgb()));
+        }
+        return sprites;
+    }
+
+    /**
+     * @param colors color of every sprite texture, in texture order; the color is appended if it has no texture yet
+     * @return the index of the texture of the given color
+     */
+    public static int textureIndex(List<Integer> colors, int rgb) {
+        int texture = colors.indexOf(rgb);
+        if (texture < 0) {
+            texture = colors.size();
+            colors.add(rgb);
+        }
+        return texture;
+    }
+
+}
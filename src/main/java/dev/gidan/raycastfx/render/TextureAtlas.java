@@ -0,0 +1,191 @@
+package dev.gidan.raycastfx.render;
+
+import lombok.Getter;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Square wall textures decoded once into a single primitive array, with a mip chain per texture.
+ * <p>
+ * Texels are stored column by column, so drawing a vertical wall strip reads a contiguous run of the array. Every
+ * texture holds its levels one after the other, each half the size of the previous one down to a single texel; a
+ * distant wall samples a small level instead of skipping through the texels of the full size one.
+ */
+public class TextureAtlas {
+
+    /**
+     * Side of the textures at level 0, in texels
+     */
+    @Getter
+    private final int size;
+    @Getter
+    private final int levels;
+    @Getter
+    private final int textures;
+    private final int[] levelOffsets;
+    private final int textureStride;
+
+    /**
+     * Texels of every texture and level, read only
+     */
+    @Getter
+    private final int[] texels;
+
+    /**
+     * @param size     side of the textures in texels, a power of two
+     * @param textures packed ARGB texels of every texture, row by row
+     */
+    public TextureAtlas(int size, List<int[]> textures) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("texture size " + size + " is not a power of two");
+        }
+        if (textures.isEmpty()) {
+            throw new IllegalArgumentException("no texture");
+        }
+        this.size = size;
+        this.levels = Integer.numberOfTrailingZeros(size) + 1;
+        this.textures = textures.size();
+
+        this.levelOffsets = new int[levels];
+        int stride = 0;
+        for (int level = 0; level < levels; level++) {
+            levelOffsets[level] = stride;
+            stride += levelSize(level) * levelSize(level);
+        }
+        this.textureStride = stride;
+        this.texels = new int[stride * this.textures];
+
+        for (int texture = 0; texture < this.textures; texture++) {
+            int[] rows = textures.get(texture);
+            if (rows.length != size * size) {
+                throw new IllegalArgumentException("texture " + texture + " is not " + size + "x" + size);
+            }
+            int base = texture * textureStride;
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    texels[base + x * size + y] = rows[y * size + x];
+                }
+            }
+            for (int level = 1; level < levels; level++) {
+                downsample(base + levelOffsets[level - 1], base + levelOffsets[level], levelSize(level));
+            }
+        }
+    }
+
+    /**
+     * Averages every 2x2 block of the previous level into one texel of the next level.
+     */
+    private void downsample(int from, int to, int toSize) {
+        int fromSize = toSize * 2;
+        for (int x = 0; x < toSize; x++) {
+            for (int y = 0; y < toSize; y++) {
+                int column = from + 2 * x * fromSize + 2 * y;
+                texels[to + x * toSize + y] = average(
+                        texels[column], texels[column + 1], texels[column + fromSize], texels[column + fromSize + 1]);
+            }
+        }
+    }
+
+    private static int average(int a, int b, int c, int d) {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((a >>> shift) & 0xFF) + ((b >>> shift) & 0xFF) + ((c >>> shift) & 0xFF) + ((d >>> shift) & 0xFF);
+            result |= ((sum + 2) >> 2) << shift;
+        }
+        return result;
+    }
+
+    /**
+     * @return the side of the textures at the given level, in texels
+     */
+    public int levelSize(int level) {
+        return size >> level;
+    }
+
+    /**
+     * Picks the smallest level still holding at least one texel per pixel of the projected column.
+     *
+     * @param projectedHeight height of the wall column on screen, in pixels
+     */
+    public int levelFor(double projectedHeight) {
+        if (projectedHeight >= size) {
+            return 0;
+        }
+        int ratio = (int) (size / Math.max(projectedHeight, 1));
+        return Math.min(31 - Integer.numberOfLeadingZeros(ratio), levels - 1);
+    }
+
+    /**
+     * @param u horizontal texture coordinate, from 0 (left edge) to 1 (right edge)
+     * @return the index in {@link #getTexels()} of the top texel of the column at u
+     */
+    public int columnOffset(int texture, int level, double u) {
+        int levelSize = levelSize(level);
+        int column = Math.min((int) (u * levelSize), levelSize - 1);
+        return texture * textureStride + levelOffsets[level] + Math.max(column, 0) * levelSize;
+    }
+
+    /**
+     * Decodes square images of the classpath, all of the same power of two size, into an atlas.
+     *
+     * @param resources absolute classpath locations of the images
+     */
+    public static TextureAtlas load(String... resources) {
+        List<int[]> textures = new ArrayList<>();
+        int size = -1;
+        for (String resource : resources) {
+            BufferedImage image;
+            try (InputStream in = TextureAtlas.class.getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IllegalArgumentException("texture " + resource + " not found");
+                }
+                image = ImageIO.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not read texture " + resource, e);
+            }
+            if (image == null || image.getWidth() != image.getHeight() || (size >= 0 && image.getWidth() != size)) {
+                throw new IllegalArgumentException("texture " + resource + " is not a square image of the atlas size");
+            }
+            size = image.getWidth();
+            textures.add(image.getRGB(0, 0, size, size, null, 0, size));
+        }
+        return new TextureAtlas(size, textures);
+    }
+
+    /**
+     * Generates a brick wall texture, rows of bricks offset by half a brick separated by mortar lines.
+     * The shade of every brick varies slightly, the same way on every call.
+     *
+     * @param size      side of the texture, a multiple of 8
+     * @param brickRgb  color of the brightest bricks, as 0xRRGGBB
+     * @param mortarRgb color of the mortar, as 0xRRGGBB
+     * @return the packed ARGB texels, row by row
+     */
+    public static int[] bricks(int size, int brickRgb, int mortarRgb) {
+        int brickHeight = size / 4;
+        int brickWidth = size / 2;
+        int mortar = Math.max(1, size / 32);
+
+        int[] texels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            int row = y / brickHeight;
+            int shift = (row % 2) * brickWidth / 2;
+            for (int x = 0; x < size; x++) {
+                int shiftedX = (x + shift) % size;
+                int brick = row * 2 + shiftedX / brickWidth;
+                boolean isMortar = y % brickHeight < mortar || shiftedX % brickWidth < mortar;
+                texels[y * size + x] = isMortar
+                        ? 0xFF000000 | mortarRgb
+                        : ShadingPalette.modulate(0xFF000000 | brickRgb, 208 + 48 * ((brick * 37 + 11) % 8) / 7);
+            }
+        }
+        return texels;
+    }
+
+}
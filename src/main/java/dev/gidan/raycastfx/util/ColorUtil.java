@@ -0,0 +1,31 @@
+package dev.gidan.raycastfx.util;
+
+import javafx.scene.paint.Color;
+
+/**
+ * Conversions between JavaFX colors and the packed ARGB ints of the framebuffer and the pixel writers.
+ */
+public class ColorUtil {
+
+    /**
+     * @return the color as 0xAARRGGBB, each channel rounded to the nearest of 256 levels
+     */
+    public static int toArgb(Color color) {
+        return (channel(color.getOpacity()) << 24)
+                | (channel(color.getRed()) << 16)
+                | (channel(color.getGreen()) << 8)
+                | channel(color.getBlue());
+    }
+
+    /**
+     * @return the opaque color of the RGB channels of a packed ARGB color, its alpha ignored
+     */
+    public static Color fromArgb(int argb) {
+        return Color.rgb((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF);
+    }
+
+    private static int channel(double value) {
+        return (int) Math.round(value * 255);
+    }
+
+}
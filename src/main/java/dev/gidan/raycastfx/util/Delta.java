@@ -5,14 +5,12 @@ public class Delta {
     long start = 0L;
 
     public double seconds(long nowInNanoSeconds) {
-        long nowInMillis = nowInNanoSeconds / 1_000_000;
-
         if (start == 0L) {
-            start = nowInMillis;
+            start = nowInNanoSeconds;
         }
 
-        double delta = (nowInMillis - start) / 1000.0;
-        start = nowInMillis;
+        double delta = (nowInNanoSeconds - start) / 1_000_000_000.0;
+        start = nowInNanoSeconds;
 
         return delta;
     }
@@ -0,0 +1,133 @@
+package dev.gidan.raycastfx.util;
+
+import lombok.Getter;
+
+/**
+ * Mutable companion of {@link Vec2D}.
+ * <p>
+ * Every operation updates the vector in place and returns it, so chains like
+ * {@code v.set(a).subtract(b).multiply(2)} do not allocate anything.
+ * Intended as a scratch holder for hot paths: keep an instance in a field and reuse it,
+ * and convert to an immutable {@link Vec2D} only when the value has to be published.
+ */
+public class MutableVec2D {
+    @Getter
+    private double x;
+    @Getter
+    private double y;
+
+    public MutableVec2D() {
+    }
+
+    public MutableVec2D(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    public MutableVec2D set(double x, double y) {
+        this.x = x;
+        this.y = y;
+        return this;
+    }
+
+    public MutableVec2D set(Vec2D other) {
+        return set(other.getX(), other.getY());
+    }
+
+    public MutableVec2D set(MutableVec2D other) {
+        return set(other.x, other.y);
+    }
+
+    // Addition
+    public MutableVec2D add(double x, double y) {
+        this.x += x;
+        this.y += y;
+        return this;
+    }
+
+    public MutableVec2D add(Vec2D other) {
+        return add(other.getX(), other.getY());
+    }
+
+    public MutableVec2D add(MutableVec2D other) {
+        return add(other.x, other.y);
+    }
+
+    // Subtraction
+    public MutableVec2D subtract(double x, double y) {
+        this.x -= x;
+        this.y -= y;
+        return this;
+    }
+
+    public MutableVec2D subtract(Vec2D other) {
+        return subtract(other.getX(), other.getY());
+    }
+
+    public MutableVec2D subtract(MutableVec2D other) {
+        return subtract(other.x, other.y);
+    }
+
+    // Scalar multiplication
+    public MutableVec2D multiply(double scalar) {
+        this.x *= scalar;
+        this.y *= scalar;
+        return this;
+    }
+
+    public MutableVec2D half() {
+        return multiply(0.5);
+    }
+
+    public MutableVec2D negate() {
+        return multiply(-1);
+    }
+
+    public MutableVec2D rotateDeg(double angleDegrees) {
+        return rotate(Math.toRadians(angleDegrees));
+    }
+
+    public MutableVec2D rotate(double angleRadians) {
+        return rotate(Math.cos(angleRadians), Math.sin(angleRadians));
+    }
+
+    /**
+     * Rotates by an angle given by its precomputed cosine and sine.
+     */
+    public MutableVec2D rotate(double cosTheta, double sinTheta) {
+        double newX = x * cosTheta - y * sinTheta;
+        double newY = x * sinTheta + y * cosTheta;
+        return set(newX, newY);
+    }
+
+    // Dot product
+    public double dot(double x, double y) {
+        return this.x * x + this.y * y;
+    }
+
+    // Magnitude
+    public double magnitude() {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    // Normalize
+    public MutableVec2D normalize() {
+        double mag = magnitude();
+        return set(x / mag, y / mag);
+    }
+
+    public double angle() {
+        return Math.atan2(y, x);
+    }
+
+    public Vec2D toVec2D() {
+        return Vec2D.of(x, y);
+    }
+
+    // String representation
+    @Override
+    public String toString() {
+        return "MutableVec2D(" + x + ", " + y + ")";
+    }
+
+}
@@ -0,0 +1,96 @@
+package dev.gidan.raycastfx.util;
+
+import lombok.Getter;
+
+/**
+ * Histogram of the last N duration samples, in nanoseconds.
+ * <p>
+ * Samples are counted in fixed-width buckets, and the oldest sample leaves its bucket when a new one comes in,
+ * so recording is constant time and percentiles are read with a scan of the buckets.
+ * Percentiles are exact to a bucket width; the max is exact, kept in a monotonic deque of the samples larger than
+ * every later one, so reading it is constant time too.
+ */
+public class RollingHistogram {
+
+    private static final long BUCKET_WIDTH_NANOS = 50_000;
+    private static final int BUCKETS = 1_000;
+
+    private final long[] window;
+    private final int[] counts = new int[BUCKETS + 1];
+
+    /**
+     * Slots in {@link #window} of the samples larger than every later one, oldest and largest first, as a ring
+     */
+    private final int[] maxima;
+    private int maximaHead;
+    private int maximaCount;
+
+    @Getter
+    private int size;
+    private int next;
+    private long total;
+
+    public RollingHistogram(int windowSize) {
+        window = new long[windowSize];
+        maxima = new int[windowSize];
+    }
+
+    public void record(long nanos) {
+        if (size == window.length) {
+            long evicted = window[next];
+            counts[bucket(evicted)]--;
+            total -= evicted;
+            if (maximaCount > 0 && maxima[maximaHead] == next) {
+                maximaHead = (maximaHead + 1) % maxima.length;
+                maximaCount--;
+            }
+        } else {
+            size++;
+        }
+
+        // the samples not larger than the new one can never be the max again
+        while (maximaCount > 0 && window[maxima[(maximaHead + maximaCount - 1) % maxima.length]] <= nanos) {
+            maximaCount--;
+        }
+        maxima[(maximaHead + maximaCount) % maxima.length] = next;
+        maximaCount++;
+
+        window[next] = nanos;
+        counts[bucket(nanos)]++;
+        total += nanos;
+        next = (next + 1) % window.length;
+    }
+
+    private static int bucket(long nanos) {
+        return (int) Math.min(Math.max(nanos, 0) / BUCKET_WIDTH_NANOS, BUCKETS);
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound of the bucket holding the given percentile, or the max if it falls beyond the last bucket
+     */
+    public long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100 * size);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min((bucket + 1) * BUCKET_WIDTH_NANOS, max());
+            }
+        }
+        return max();
+    }
+
+    public long max() {
+        return maximaCount == 0 ? 0 : Math.max(window[maxima[maximaHead]], 0);
+    }
+
+    public double mean() {
+        return size == 0 ? 0 : (double) total / size;
+    }
+
+}
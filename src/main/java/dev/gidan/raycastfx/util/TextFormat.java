@@ -0,0 +1,71 @@
+package dev.gidan.raycastfx.util;
+
+/**
+ * Allocation-free replacements for the few {@link String#format} patterns used by the HUD.
+ * Everything is appended to a caller-owned {@link StringBuilder}.
+ */
+public class TextFormat {
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private TextFormat() {
+    }
+
+    /**
+     * Rounds the value to the given number of decimals, as an integer count of the smallest displayed unit.
+     * Two values with the same quantized value are displayed the same by {@link #appendFixed}.
+     */
+    public static long quantize(double value, int decimals) {
+        // halves are rounded away from zero, as String.format does
+        long magnitude = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+        return value < 0 ? -magnitude : magnitude;
+    }
+
+    /**
+     * Appends the value with exactly the given number of decimals, like {@code %.Nf}.
+     */
+    public static StringBuilder appendFixed(StringBuilder builder, double value, int decimals) {
+        if (!Double.isFinite(value)) {
+            return builder.append(value);
+        }
+
+        long quantized = quantize(value, decimals);
+        if (quantized < 0) {
+            builder.append('-');
+            quantized = -quantized;
+        }
+
+        long power = POWERS_OF_TEN[decimals];
+        builder.append(quantized / power);
+        if (decimals > 0) {
+            builder.append('.');
+            long fraction = quantized % power;
+            for (long digit = power / 10; digit > 1 && fraction < digit; digit /= 10) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+        return builder;
+    }
+
+    /**
+     * Right-aligns everything appended since {@code start} in a field of the given width, like {@code %Ns}.
+     */
+    public static StringBuilder padLeft(StringBuilder builder, int start, int width) {
+        for (int missing = width - (builder.length() - start); missing > 0; missing--) {
+            builder.insert(start, ' ');
+        }
+        return builder;
+    }
+
+    /**
+     * Left-aligns everything appended since {@code start} in a field of the given width, like {@code %-Ns}.
+     */
+    public static StringBuilder padRight(StringBuilder builder, int start, int width) {
+        for (int missing = width - (builder.length() - start); missing > 0; missing--) {
+            builder.append(' ');
+        }
+        return builder;
+    }
+
+}
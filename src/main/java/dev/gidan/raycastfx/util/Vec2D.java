@@ -1,6 +1,5 @@
 package dev.gidan.raycastfx.util;
 
-import javafx.geometry.Point2D;
 import lombok.Getter;
 
 import java.util.Objects;
@@ -89,10 +88,6 @@ public class Vec2D {
         return Math.atan2(y, x);
     }
 
-    public Point2D toPoint2D() {
-        return new Point2D(this.x, this.y);
-    }
-
     // String representation
     @Override
     public String toString() {
@@ -0,0 +1,435 @@
+package dev.gidan.raycastfx.world;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * World grid stored in a memory-mapped file, split in square chunks of {@link #CHUNK_SIZE} cells that are paged in
+ * on demand, for maps too large to be kept on the heap.
+ * <p>
+ * Chunks are copied out of the mapping the first time one of their cells is read, and kept in a cache bounded by a
+ * memory budget. When the cache is full, the least recently used chunk is evicted, approximated with the clock
+ * algorithm so that reads only set a flag instead of reordering a list. Reads go through a directory indexed by chunk
+ * and never lock; only loading and evicting a chunk does.
+ * <p>
+ * File layout, big endian: a header ({@code int} magic "RCCH", format version, CRC32 of the source, width, height and
+ * spawn count) padded to {@link #HEADER_ALIGNMENT} bytes, followed by every chunk uncompressed, row of chunks by row
+ * of chunks, then by the spawns as in {@link MapFormat}. Chunks on the right and bottom edges are padded with empty
+ * cells. The spawns come last so that a map can be written while it is being decoded, one band of chunks at a time.
+ */
+@Slf4j
+public class ChunkedWorld implements WorldGrid, AutoCloseable {
+
+    /**
+     * Side of a chunk, in cells
+     */
+    public static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    public static final int CHUNK_BYTES = CHUNK_SIZE * CHUNK_SIZE;
+
+    /**
+     * Chunks around the player, on every side, loaded ahead of time. One chunk is far more than the distance rays
+     * travel.
+     */
+    private static final int PREFETCH_RADIUS = 1;
+
+    /**
+     * The cache always holds at least the chunks a frame can touch around the player
+     */
+    private static final int MIN_CACHED_CHUNKS = (2 * PREFETCH_RADIUS + 1) * (2 * PREFETCH_RADIUS + 1);
+
+    static final int MAGIC = 0x52434348;
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 6 * Integer.BYTES;
+    private static final int SPAWN_COUNT_OFFSET = 5 * Integer.BYTES;
+    static final int HEADER_ALIGNMENT = 4096;
+
+    /**
+     * Largest mapping; files larger than this are mapped in several regions, each holding whole chunks
+     */
+    private static final long MAX_REGION_BYTES = (1L << 30);
+
+    private static final class Chunk {
+        final int index;
+        final byte[] cells;
+        /**
+         * Set on every read, cleared by the clock hand: chunks that stay unreferenced for a whole turn are evicted
+         */
+        volatile boolean referenced = true;
+
+        Chunk(int index, byte[] cells) {
+            this.index = index;
+            this.cells = cells;
+        }
+    }
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    @Getter
+    private final List<MapData.Spawn> spawns;
+
+    private final int chunksX;
+    private final MappedByteBuffer[] regions;
+    private final int chunksPerRegion;
+
+    private final AtomicReferenceArray<Chunk> directory;
+    private final Chunk[] resident;
+    private int residentCount;
+    private int clockHand;
+    private final Object lock = new Object();
+
+    private final ExecutorService prefetcher = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Integer> prefetching = ConcurrentHashMap.newKeySet();
+    private volatile int lastPrefetchChunk = -1;
+
+    @Getter
+    private volatile long loads;
+    @Getter
+    private volatile long evictions;
+
+    private ChunkedWorld(FileChannel channel, int width, int height, List<MapData.Spawn> spawns, long dataOffset,
+                         long cacheBudgetBytes) throws IOException {
+        this.width = width;
+        this.height = height;
+        this.spawns = List.copyOf(spawns);
+        this.chunksX = chunks(width);
+
+        int chunkCount = chunksX * chunks(height);
+        this.chunksPerRegion = (int) (MAX_REGION_BYTES / CHUNK_BYTES);
+        this.regions = new MappedByteBuffer[(chunkCount + chunksPerRegion - 1) / chunksPerRegion];
+        for (int region = 0; region < regions.length; region++) {
+            long offset = dataOffset + (long) region * chunksPerRegion * CHUNK_BYTES;
+            long size = (long) Math.min(chunksPerRegion, chunkCount - region * chunksPerRegion) * CHUNK_BYTES;
+            regions[region] = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+        }
+
+        this.directory = new AtomicReferenceArray<>(chunkCount);
+        int capacity = (int) Math.min(chunkCount, Math.max(MIN_CACHED_CHUNKS, cacheBudgetBytes / CHUNK_BYTES));
+        this.resident = new Chunk[Math.max(capacity, 1)];
+        log.debug("chunked world {}x{} opened: {} chunks, {} cached at most", width, height, chunkCount, resident.length);
+    }
+
+    /**
+     * Opens a chunk file written by {@link #write}.
+     *
+     * @param sourceCrc        checksum of the current source of the map
+     * @param cacheBudgetBytes heap memory the cached chunks may take
+     * @return the world, or null if the file does not exist, has another format version or has been generated from
+     * another source
+     * @throws IOException if the file cannot be read or is corrupted
+     */
+    public static ChunkedWorld open(Path file, int sourceCrc, long cacheBudgetBytes) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("not a chunk file");
+            }
+            if (header.getInt() != VERSION || header.getInt() != sourceCrc) {
+                return null;
+            }
+
+            int width = header.getInt();
+            int height = header.getInt();
+            int spawnCount = header.getInt();
+            if (width < 0 || height < 0 || spawnCount < 0) {
+                throw new IOException("invalid chunk file header");
+            }
+
+            long spawnOffset = HEADER_ALIGNMENT + (long) chunks(width) * chunks(height) * CHUNK_BYTES;
+            long expectedSize = spawnOffset + 3L * Integer.BYTES * spawnCount;
+            if (channel.size() < expectedSize) {
+                throw new IOException("truncated chunk file: " + channel.size() + " bytes out of " + expectedSize);
+            }
+            ByteBuffer spawnTable = read(channel, spawnOffset, (int) (expectedSize - spawnOffset));
+            List<MapData.Spawn> spawns = new ArrayList<>();
+            for (int i = 0; i < spawnCount; i++) {
+                spawns.add(new MapData.Spawn(spawnTable.getInt(), spawnTable.getInt(), spawnTable.getInt()));
+            }
+
+            // the mappings stay valid once the channel is closed
+            return new ChunkedWorld(channel, width, height, spawns, HEADER_ALIGNMENT, cacheBudgetBytes);
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("truncated chunk file");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Source of the cells of a map, read a band of rows at a time so that the whole map never has to be in memory.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+
+        /**
+         * @param firstRow first row of the band
+         * @param rows     number of rows of the band, at most {@link #CHUNK_SIZE}
+         * @param cells    filled with the cells of the band, row by row
+         * @param spawns   the spawn points of the band are appended to it
+         */
+        void read(int firstRow, int rows, byte[] cells, List<MapData.Spawn> spawns) throws IOException;
+
+    }
+
+    /**
+     * Writes the map as a chunk file, atomically replacing the given file.
+     *
+     * @param sourceCrc checksum of the source the map has been decoded from
+     */
+    public static void write(MapData map, int sourceCrc, Path file) throws IOException {
+        WorldGrid grid = map.grid();
+        write(grid.getWidth(), grid.getHeight(), (firstRow, rows, cells, spawns) -> {
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    cells[y * grid.getWidth() + x] = grid.get(x, firstRow + y);
+                }
+            }
+            for (MapData.Spawn spawn : map.spawns()) {
+                if (spawn.cellY() >= firstRow && spawn.cellY() < firstRow + rows) {
+                    spawns.add(spawn);
+                }
+            }
+        }, sourceCrc, file);
+    }
+
+    /**
+     * Writes a map read from the source one band of {@link #CHUNK_SIZE} rows at a time as a chunk file, atomically
+     * replacing the given file. Only one band is held in memory.
+     *
+     * @param sourceCrc checksum of the source the map has been decoded from
+     */
+    public static void write(int width, int height, RowSource rows, int sourceCrc, Path file) throws IOException {
+        int chunksX = chunks(width);
+        int chunksY = chunks(height);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            List<MapData.Spawn> spawns = new ArrayList<>();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sourceCrc);
+                out.writeInt(width);
+                out.writeInt(height);
+                // the spawn count is only known once every band has been read, see below
+                out.writeInt(0);
+                for (long i = HEADER_SIZE; i < HEADER_ALIGNMENT; i++) {
+                    out.writeByte(0);
+                }
+
+                byte[] band = new byte[width * CHUNK_SIZE];
+                byte[] chunk = new byte[CHUNK_BYTES];
+                for (int chunkY = 0; chunkY < chunksY; chunkY++) {
+                    int firstRow = chunkY * CHUNK_SIZE;
+                    int bandRows = Math.min(CHUNK_SIZE, height - firstRow);
+                    rows.read(firstRow, bandRows, band, spawns);
+                    for (int chunkX = 0; chunkX < chunksX; chunkX++) {
+                        // cells past the right and bottom edges stay empty
+                        Arrays.fill(chunk, OccupancyGrid.EMPTY);
+                        int columns = Math.min(CHUNK_SIZE, width - chunkX * CHUNK_SIZE);
+                        for (int y = 0; y < bandRows; y++) {
+                            System.arraycopy(band, y * width + chunkX * CHUNK_SIZE, chunk, y << CHUNK_SHIFT, columns);
+                        }
+                        out.write(chunk);
+                    }
+                }
+
+                for (MapData.Spawn spawn : spawns) {
+                    out.writeInt(spawn.cellX());
+                    out.writeInt(spawn.cellY());
+                    out.writeInt(spawn.rgb());
+                }
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, spawns.size()), SPAWN_COUNT_OFFSET);
+            }
+
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public byte get(int cellX, int cellY) {
+        if (!contains(cellX, cellY)) {
+            return OccupancyGrid.EMPTY;
+        }
+
+        int index = (cellY >> CHUNK_SHIFT) * chunksX + (cellX >> CHUNK_SHIFT);
+        Chunk chunk = directory.getAcquire(index);
+        if (chunk == null) {
+            chunk = load(index);
+        }
+        if (!chunk.referenced) {
+            chunk.referenced = true;
+        }
+        return chunk.cells[((cellY & CHUNK_MASK) << CHUNK_SHIFT) | (cellX & CHUNK_MASK)];
+    }
+
+    @Override
+    public boolean contains(int cellX, int cellY) {
+        return cellX >= 0 && cellY >= 0 && cellX < width && cellY < height;
+    }
+
+    /**
+     * Loads the chunks around the given cell on virtual threads, once per chunk the cell moves into.
+     */
+    @Override
+    public void prefetchAround(int cellX, int cellY) {
+        if (!contains(cellX, cellY)) {
+            return;
+        }
+        int centerX = cellX >> CHUNK_SHIFT;
+        int centerY = cellY >> CHUNK_SHIFT;
+        int center = centerY * chunksX + centerX;
+        if (center == lastPrefetchChunk) {
+            return;
+        }
+        lastPrefetchChunk = center;
+
+        int chunksY = chunks(height);
+        for (int chunkY = Math.max(0, centerY - PREFETCH_RADIUS); chunkY <= Math.min(chunksY - 1, centerY + PREFETCH_RADIUS); chunkY++) {
+            for (int chunkX = Math.max(0, centerX - PREFETCH_RADIUS); chunkX <= Math.min(chunksX - 1, centerX + PREFETCH_RADIUS); chunkX++) {
+                int index = chunkY * chunksX + chunkX;
+                if (directory.getAcquire(index) == null && prefetching.add(index)) {
+                    try {
+                        prefetcher.execute(() -> {
+                            try {
+                                load(index);
+                            } finally {
+                                prefetching.remove(index);
+                            }
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // closed, the chunk will be loaded on first read
+                        prefetching.remove(index);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of chunks currently held in memory
+     */
+    public int getResidentChunks() {
+        synchronized (lock) {
+            return residentCount;
+        }
+    }
+
+    private Chunk load(int index) {
+        Chunk existing = directory.getAcquire(index);
+        if (existing != null) {
+            return existing;
+        }
+
+        MappedByteBuffer region = regions[index / chunksPerRegion];
+        if (region == null) {
+            throw new IllegalStateException("chunked world has been closed");
+        }
+        // absolute bulk reads do not touch the position of the buffer, so concurrent loads can share it
+        byte[] cells = new byte[CHUNK_BYTES];
+        region.get((index % chunksPerRegion) * CHUNK_BYTES, cells);
+
+        synchronized (lock) {
+            existing = directory.getAcquire(index);
+            if (existing != null) {
+                return existing;
+            }
+
+            Chunk chunk = new Chunk(index, cells);
+            if (residentCount < resident.length) {
+                resident[residentCount++] = chunk;
+            } else {
+                resident[evict()] = chunk;
+            }
+            directory.setRelease(index, chunk);
+            loads++;
+            return chunk;
+        }
+    }
+
+    /**
+     * Advances the clock hand to the first chunk not read since the last turn and drops it.
+     *
+     * @return the freed slot of the resident chunks
+     */
+    private int evict() {
+        while (true) {
+            Chunk candidate = resident[clockHand];
+            int slot = clockHand;
+            clockHand = (clockHand + 1) % resident.length;
+            if (candidate.referenced) {
+                candidate.referenced = false;
+            } else {
+                directory.setRelease(candidate.index, null);
+                evictions++;
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Stops the prefetching and drops the mapping of the file and the cached chunks; they are released once garbage
+     * collected. Cells cannot be read anymore.
+     */
+    @Override
+    public void close() {
+        prefetcher.shutdownNow();
+        synchronized (lock) {
+            Arrays.fill(regions, null);
+            Arrays.fill(resident, null);
+            residentCount = 0;
+            for (int index = 0; index < directory.length(); index++) {
+                directory.setRelease(index, null);
+            }
+        }
+    }
+
+    private static int chunks(int cells) {
+        return (cells + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+    }
+
+}
@@ -0,0 +1,119 @@
+package dev.gidan.raycastfx.world;
+
+/**
+ * Swept tests of a circle moving along one axis against the solid cells of a grid.
+ * <p>
+ * Every cell between the start and the end of the move is tested, whatever the length of the move, so a fast body
+ * cannot tunnel through a thin wall. Moves are resolved one axis at a time: a body blocked on one axis keeps the
+ * other component of its move, which makes it slide along the walls.
+ * <p>
+ * The contact with a cell is exact for a circle: against the face of the cell when the center of the circle is in
+ * front of it, against its nearest corner otherwise. A body stops {@link #SKIN} short of the contact, so it does not
+ * touch the walls it rests against when it moves along them.
+ */
+public final class CircleSweep {
+
+    /**
+     * Distance kept between a body and the wall that stopped it, in world units
+     */
+    public static final double SKIN = 1e-6;
+
+    private CircleSweep() {
+    }
+
+    /**
+     * @param x      world position of the center before the move
+     * @param y      world position of the center
+     * @param radius radius of the circle, 0 for a point
+     * @param dx     move along x, in world units
+     * @return the x reached by the center, x + dx if nothing is in the way
+     */
+    public static double sweepX(WorldGrid grid, double x, double y, double radius, double dx) {
+        return sweep(grid, false, x, y, radius, dx);
+    }
+
+    /**
+     * @param x      world position of the center
+     * @param y      world position of the center before the move
+     * @param radius radius of the circle, 0 for a point
+     * @param dy     move along y, in world units
+     * @return the y reached by the center, y + dy if nothing is in the way
+     */
+    public static double sweepY(WorldGrid grid, double x, double y, double radius, double dy) {
+        return sweep(grid, true, y, x, radius, dy);
+    }
+
+    /**
+     * Sweeps the circle along one axis. The cells in the column of the center are beside the circle rather than in
+     * front of it, so only the columns ahead of it are tested, nearest first.
+     *
+     * @param vertical whether "along" is y and "across" is x
+     * @param along    coordinate of the center on the axis of the move
+     * @param across   coordinate of the center on the other axis
+     */
+    private static double sweep(WorldGrid grid, boolean vertical, double along, double across, double radius, double delta) {
+        if (delta == 0) {
+            return along;
+        }
+        int size = WorldGrid.CELL_SIZE;
+        double target = along + delta;
+        int row = WorldGrid.toCell(across);
+        int firstRow = WorldGrid.toCell(across - radius);
+        int lastRow = WorldGrid.toCell(across + radius);
+        double reach = target;
+
+        if (delta > 0) {
+            int lastColumn = WorldGrid.toCell(target + radius);
+            for (int column = WorldGrid.toCell(along) + 1; column <= lastColumn; column++) {
+                double edge = (double) column * size;
+                if (edge - radius >= reach) {
+                    break;
+                }
+                for (int r = firstRow; r <= lastRow; r++) {
+                    double offset = contactOffset(grid, vertical, column, r, row, across, radius);
+                    if (offset >= 0) {
+                        reach = Math.min(reach, edge - offset - SKIN);
+                    }
+                }
+            }
+            return Math.max(along, reach);
+        }
+
+        int lastColumn = WorldGrid.toCell(target - radius);
+        for (int column = WorldGrid.toCell(along) - 1; column >= lastColumn; column--) {
+            double edge = (double) (column + 1) * size;
+            if (edge + radius <= reach) {
+                break;
+            }
+            for (int r = firstRow; r <= lastRow; r++) {
+                double offset = contactOffset(grid, vertical, column, r, row, across, radius);
+                if (offset >= 0) {
+                    reach = Math.max(reach, edge + offset + SKIN);
+                }
+            }
+        }
+        return Math.min(along, reach);
+    }
+
+    /**
+     * @param row the row of the center of the circle
+     * @return the distance along the move between the center and the facing edge of the cell at contact, or -1 if
+     * the cell is empty or the circle passes beside it
+     */
+    private static double contactOffset(WorldGrid grid, boolean vertical, int column, int r, int row, double across,
+                                        double radius) {
+        if (vertical ? !grid.isSolid(r, column) : !grid.isSolid(column, r)) {
+            return -1;
+        }
+        if (r == row) {
+            return radius;
+        }
+        double gap = r < row ? across - (double) (r + 1) * WorldGrid.CELL_SIZE : (double) r * WorldGrid.CELL_SIZE - across;
+        if (gap >= radius) {
+            return -1;
+        }
+        // the circle touches the nearest corner of the cell
+        return Math.sqrt(radius * radius - gap * gap);
+    }
+
+}
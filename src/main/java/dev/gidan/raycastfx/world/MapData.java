@@ -0,0 +1,82 @@
+package dev.gidan.raycastfx.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Everything read from a map: the occupancy of its cells and the spawn points placed on it.
+ *
+ * @param grid   walls of the map
+ * @param spawns every cell marked with a color other than black (wall) and white (floor)
+ */
+public record MapData(WorldGrid grid, List<Spawn> spawns) {
+
+    /**
+     * Color marking the cell the player starts from
+     */
+    public static final int PLAYER_SPAWN_RGB = 0xFF0000;
+
+    /**
+     * A colored cell of the map.
+     *
+     * @param rgb color of the cell, as 0xRRGGBB
+     */
+    public record Spawn(int cellX, int cellY, int rgb) {
+    }
+
+    public MapData {
+        spawns = List.copyOf(spawns);
+    }
+
+    /**
+     * @return the first spawn point of the given color, in reading order
+     */
+    public Optional<Spawn> findSpawn(int rgb) {
+        for (Spawn spawn : spawns) {
+            if (spawn.rgb() == rgb) {
+                return Optional.of(spawn);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Classifies the pixels of a map image in a single pass, one pixel per cell.
+     *
+     * @param argb pixels of the image, row by row
+     */
+    public static MapData fromPixels(int width, int height, int[] argb) {
+        byte[] cells = new byte[width * height];
+        List<Spawn> spawns = new ArrayList<>();
+        classify(argb, 0, width, height, cells, spawns);
+        return new MapData(new OccupancyGrid(width, height, cells), spawns);
+    }
+
+    /**
+     * Classifies a band of rows of the pixels of a map image, one pixel per cell.
+     *
+     * @param argb     pixels of the band, row by row
+     * @param firstRow row of the image the band starts at
+     * @param cells    filled with the cells of the band, row by row
+     * @param spawns   the spawn points of the band are appended to it
+     */
+    public static void classify(int[] argb, int firstRow, int width, int rows, byte[] cells, List<Spawn> spawns) {
+        for (int i = 0; i < width * rows; i++) {
+            int pixel = argb[i];
+            cells[i] = OccupancyGrid.EMPTY;
+            if ((pixel >>> 24) == 0) {
+                // transparent pixels are floor
+                continue;
+            }
+
+            int rgb = pixel & 0xFFFFFF;
+            if (rgb == 0x000000) {
+                cells[i] = OccupancyGrid.WALL;
+            } else if (rgb != 0xFFFFFF) {
+                spawns.add(new Spawn(i % width, firstRow + i / width, rgb));
+            }
+        }
+    }
+
+}
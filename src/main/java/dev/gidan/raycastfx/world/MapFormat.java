@@ -0,0 +1,200 @@
+package dev.gidan.raycastfx.world;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of a {@link MapData}, used to cache decoded maps across starts.
+ * <p>
+ * Layout, big endian:
+ * <pre>
+ * int   magic "RCMP"
+ * int   format version
+ * int   CRC32 of the source the map was decoded from
+ * int   width, int height
+ * int   spawn count, then per spawn: int cellX, int cellY, int rgb
+ * int   run count, then per run: byte cell value, varint run length
+ * </pre>
+ * The cells are run-length encoded row by row, which keeps the long runs of floor and wall typical of maps small.
+ * Files are read through a memory mapping, without copying them on the heap first.
+ */
+public class MapFormat {
+
+    static final int MAGIC = 0x52434D50;
+    static final int VERSION = 1;
+
+    private MapFormat() {
+    }
+
+    /**
+     * Writes the map to the given file, atomically replacing it.
+     *
+     * @param sourceCrc checksum of the source the map has been decoded from
+     */
+    public static void write(MapData map, int sourceCrc, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                write(map, sourceCrc, out);
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    static void write(MapData map, int sourceCrc, DataOutputStream out) throws IOException {
+        WorldGrid grid = map.grid();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(sourceCrc);
+        out.writeInt(grid.getWidth());
+        out.writeInt(grid.getHeight());
+
+        out.writeInt(map.spawns().size());
+        for (MapData.Spawn spawn : map.spawns()) {
+            out.writeInt(spawn.cellX());
+            out.writeInt(spawn.cellY());
+            out.writeInt(spawn.rgb());
+        }
+
+        byte[] cells = cells(grid);
+        out.writeInt(countRuns(cells));
+        int i = 0;
+        while (i < cells.length) {
+            byte value = cells[i];
+            int start = i;
+            while (i < cells.length && cells[i] == value) {
+                i++;
+            }
+            out.writeByte(value);
+            writeVarint(out, i - start);
+        }
+    }
+
+    private static byte[] cells(WorldGrid grid) {
+        if (grid instanceof OccupancyGrid occupancyGrid) {
+            return occupancyGrid.cells();
+        }
+
+        byte[] cells = new byte[grid.getWidth() * grid.getHeight()];
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                cells[y * grid.getWidth() + x] = grid.get(x, y);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Reads a map written by {@link #write}.
+     *
+     * @param sourceCrc checksum of the current source of the map
+     * @return the map, or null if the file does not exist, has another format version or has been generated from
+     * another source
+     * @throws IOException if the file cannot be read or is corrupted
+     */
+    public static MapData read(Path file, int sourceCrc) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, sourceCrc);
+        }
+    }
+
+    static MapData read(ByteBuffer buffer, int sourceCrc) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a map file");
+            }
+            if (buffer.getInt() != VERSION || buffer.getInt() != sourceCrc) {
+                return null;
+            }
+
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width < 0 || height < 0 || (long) width * height > Integer.MAX_VALUE) {
+                throw new IOException("invalid map size " + width + "x" + height);
+            }
+
+            int spawnCount = buffer.getInt();
+            List<MapData.Spawn> spawns = new ArrayList<>();
+            for (int i = 0; i < spawnCount; i++) {
+                spawns.add(new MapData.Spawn(buffer.getInt(), buffer.getInt(), buffer.getInt()));
+            }
+
+            byte[] cells = new byte[width * height];
+            int runs = buffer.getInt();
+            int position = 0;
+            for (int run = 0; run < runs; run++) {
+                byte value = buffer.get();
+                int length = readVarint(buffer);
+                if (length < 0 || length > cells.length - position) {
+                    throw new IOException("cell runs exceed the map size");
+                }
+                for (int end = position + length; position < end; position++) {
+                    cells[position] = value;
+                }
+            }
+            if (position != cells.length) {
+                throw new IOException("cell runs cover " + position + " of " + cells.length + " cells");
+            }
+
+            return new MapData(new OccupancyGrid(width, height, cells), spawns);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated map file", e);
+        }
+    }
+
+    private static int countRuns(byte[] cells) {
+        int runs = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (i == 0 || cells[i] != cells[i - 1]) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed run length");
+    }
+
+}
@@ -0,0 +1,196 @@
+package dev.gidan.raycastfx.world;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Loads map images, one pixel per grid cell: black pixels are walls, white pixels are floor, and any other color
+ * marks a spawn point.
+ * <p>
+ * Decoding a large PNG dominates startup, so the decoded map is cached in the {@link MapFormat binary format}. The
+ * cache entry records the checksum of the image it has been generated from and is regenerated when the image changes.
+ */
+@Slf4j
+public class MapLoader {
+
+    /**
+     * Directory of the cached maps, null to always decode the images
+     */
+    private final Path cacheDirectory;
+
+    public MapLoader(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * @param resource absolute classpath location of the map image, e.g. {@code /map.png}
+     */
+    public MapData load(String resource) {
+        byte[] source = readResource(resource);
+        return load(resource, source, crc(source));
+    }
+
+    /**
+     * Loads the map as a {@link ChunkedWorld}, generating its chunk file the first time and whenever the image changes.
+     * Without a cache directory the chunk file is written to a temporary file.
+     * <p>
+     * The chunk file is written from the decoded image one band of chunks at a time, without building the dense grid
+     * of the map nor caching it in the binary format.
+     *
+     * @param resource         absolute classpath location of the map image, e.g. {@code /map.png}
+     * @param cacheBudgetBytes heap memory the cached chunks may take
+     */
+    public MapData loadChunked(String resource, long cacheBudgetBytes) {
+        byte[] source = readResource(resource);
+        int crc = crc(source);
+
+        try {
+            Path chunkFile;
+            ChunkedWorld world = null;
+            if (cacheDirectory != null) {
+                chunkFile = cacheFile(resource, ".rcchunks");
+                try {
+                    world = ChunkedWorld.open(chunkFile, crc, cacheBudgetBytes);
+                } catch (IOException e) {
+                    log.warn("discarding unreadable chunk file {}: {}", chunkFile, e.getMessage());
+                }
+            } else {
+                chunkFile = Files.createTempFile("raycastfx", ".rcchunks");
+                chunkFile.toFile().deleteOnExit();
+            }
+
+            if (world == null) {
+                BufferedImage image = readImage(source);
+                int width = image.getWidth();
+                int[] pixels = new int[width * ChunkedWorld.CHUNK_SIZE];
+                ChunkedWorld.write(width, image.getHeight(), (firstRow, rows, cells, spawns) -> {
+                    image.getRGB(0, firstRow, width, rows, pixels, 0, width);
+                    MapData.classify(pixels, firstRow, width, rows, cells, spawns);
+                }, crc, chunkFile);
+                log.debug("chunk file of map {} written to {}", resource, chunkFile);
+                world = ChunkedWorld.open(chunkFile, crc, cacheBudgetBytes);
+            }
+            return new MapData(world, world.getSpawns());
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not load map " + resource + " as chunks", e);
+        }
+    }
+
+    /**
+     * Loads the {@link PotentiallyVisibleSet potentially visible sets} of the map, computing them the first time and
+     * whenever the image changes. They are cached next to the decoded map.
+     *
+     * @param resource absolute classpath location of the map image the grid has been loaded from
+     */
+    public PotentiallyVisibleSet loadVisibility(String resource, WorldGrid grid) {
+        int crc = crc(readResource(resource));
+        Path cacheFile = cacheDirectory != null ? cacheFile(resource, ".rcpvs") : null;
+        if (cacheFile != null) {
+            try {
+                PotentiallyVisibleSet cached = PotentiallyVisibleSet.read(cacheFile, crc);
+                if (cached != null) {
+                    log.debug("visibility of map {} loaded from {}", resource, cacheFile);
+                    return cached;
+                }
+            } catch (IOException e) {
+                log.warn("discarding unreadable visibility cache {}: {}", cacheFile, e.getMessage());
+            }
+        }
+
+        PotentiallyVisibleSet visibility = PotentiallyVisibleSet.compute(grid);
+        if (cacheFile != null) {
+            try {
+                visibility.write(crc, cacheFile);
+            } catch (IOException e) {
+                log.warn("could not cache the visibility of map {} in {}: {}", resource, cacheFile, e.getMessage());
+            }
+        }
+        return visibility;
+    }
+
+    private MapData load(String resource, byte[] source, int crc) {
+        Path cacheFile = cacheDirectory != null ? cacheFile(resource, ".rcmap") : null;
+        if (cacheFile != null) {
+            try {
+                MapData cached = MapFormat.read(cacheFile, crc);
+                if (cached != null) {
+                    log.debug("map {} loaded from {}", resource, cacheFile);
+                    return cached;
+                }
+            } catch (IOException e) {
+                log.warn("discarding unreadable map cache {}: {}", cacheFile, e.getMessage());
+            }
+        }
+
+        MapData map = decode(source);
+        log.debug("map {} decoded: {}x{} cells, {} spawn points", resource,
+                map.grid().getWidth(), map.grid().getHeight(), map.spawns().size());
+
+        if (cacheFile != null) {
+            try {
+                MapFormat.write(map, crc, cacheFile);
+            } catch (IOException e) {
+                log.warn("could not cache map {} in {}: {}", resource, cacheFile, e.getMessage());
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Decodes the image and reads all of its pixels with a single bulk read.
+     * Decoding goes through ImageIO, so maps can be loaded without a JavaFX toolkit.
+     */
+    static MapData decode(byte[] source) {
+        BufferedImage image = readImage(source);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        return MapData.fromPixels(width, height, pixels);
+    }
+
+    private static BufferedImage readImage(byte[] source) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(source));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("invalid map image", e);
+        }
+        if (image == null) {
+            throw new IllegalArgumentException("unsupported map image format");
+        }
+        return image;
+    }
+
+    private Path cacheFile(String resource, String suffix) {
+        String name = resource.substring(resource.lastIndexOf('/') + 1);
+        int extension = name.lastIndexOf('.');
+        return cacheDirectory.resolve((extension > 0 ? name.substring(0, extension) : name) + suffix);
+    }
+
+    private static byte[] readResource(String resource) {
+        try (InputStream in = MapLoader.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalArgumentException("map " + resource + " not found");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read map " + resource, e);
+        }
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+}
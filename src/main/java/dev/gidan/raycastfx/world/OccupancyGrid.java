@@ -0,0 +1,68 @@
+package dev.gidan.raycastfx.world;
+
+import lombok.Getter;
+
+/**
+ * Dense, primitive-backed index of the world grid.
+ * Every cell of the map is stored as a single byte, so looking up whether a cell is solid is a bounds check
+ * plus an array read, independently of how many walls the map contains.
+ * Cells outside the grid are considered empty, as the world has no walls beyond the map borders.
+ */
+public class OccupancyGrid implements WorldGrid {
+
+    public static final byte EMPTY = 0;
+    public static final byte WALL = 1;
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+
+    private final byte[] cells;
+
+    public OccupancyGrid(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("invalid grid size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = new byte[width * height];
+    }
+
+    /**
+     * Wraps existing cells, stored row by row.
+     */
+    OccupancyGrid(int width, int height, byte[] cells) {
+        if (cells.length != width * height) {
+            throw new IllegalArgumentException(cells.length + " cells for a " + width + "x" + height + " grid");
+        }
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+    }
+
+    /**
+     * @return the cells, row by row, backing this grid
+     */
+    byte[] cells() {
+        return cells;
+    }
+
+    @Override
+    public boolean contains(int cellX, int cellY) {
+        return cellX >= 0 && cellY >= 0 && cellX < width && cellY < height;
+    }
+
+    @Override
+    public byte get(int cellX, int cellY) {
+        return contains(cellX, cellY) ? cells[cellY * width + cellX] : EMPTY;
+    }
+
+    public void set(int cellX, int cellY, byte value) {
+        if (!contains(cellX, cellY)) {
+            throw new IndexOutOfBoundsException("cell " + cellX + "," + cellY + " is outside of the grid");
+        }
+        cells[cellY * width + cellX] = value;
+    }
+
+}
@@ -0,0 +1,552 @@
+package dev.gidan.raycastfx.world;
+
+import dev.gidan.raycastfx.util.Ray;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Cells potentially visible from every walkable cell of a grid, precomputed once so that visibility queries are set
+ * lookups instead of ray casts.
+ * <p>
+ * Nothing is drawn beyond {@link Ray#INFINITE_DISTANCE}, so the cells visible from a cell all lie in the square of
+ * {@link #RADIUS} cells around it. The visible set of a cell is a bitset over that square, row by row, stored as the
+ * lengths of its alternating runs of hidden and visible cells: walls hide whole areas, so a set takes a few dozen
+ * runs rather than the several hundred bits of the square.
+ * <p>
+ * The sets are conservative: a cell is in the set of another when some segment from a point of the other, within the
+ * draw distance, reaches it without crossing a wall, whatever the position of the camera in its cell. They are
+ * computed by sweeping the lines leaving every walkable cell in the four directions, bounding the lines stopped by
+ * the walls from below: the sweep can add cells that are out of sight, never miss one that is in sight. Solid cells
+ * and cells outside the grid have no set; queries from them report every cell as visible.
+ * <p>
+ * Sets are cached next to the decoded map by {@link MapLoader}, in the format described at {@link #write(int, Path)}.
+ */
+@Slf4j
+public class PotentiallyVisibleSet {
+
+    /**
+     * Distance, in cells, of the farthest cell visible from a cell: the draw distance, plus one cell for the camera
+     * standing at the far side of its cell
+     */
+    public static final int RADIUS = (int) Math.ceil(Ray.INFINITE_DISTANCE / WorldGrid.CELL_SIZE) + 1;
+
+    static final int SIDE = 2 * RADIUS + 1;
+    static final int WINDOW_CELLS = SIDE * SIDE;
+
+    static final int MAGIC = 0x52435056;
+    static final int VERSION = 2;
+
+    /**
+     * Ranges the slopes of the lines of every sweep are split into: the finer, the fewer hidden cells are let through
+     */
+    static final int SLOPES = 64;
+
+    /**
+     * Margin by which intervals are widened for the cells reached and narrowed for the walls, against rounding
+     */
+    private static final double EPSILON = 1e-9;
+
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+
+    /**
+     * Index in {@link #runs} of the first run of every cell, row by row, plus the end of the last one
+     */
+    private final int[] offsets;
+
+    /**
+     * Lengths of the runs of every cell, alternately hidden and visible, starting with hidden
+     */
+    private final char[] runs;
+
+    PotentiallyVisibleSet(int width, int height, int[] offsets, char[] runs) {
+        this.width = width;
+        this.height = height;
+        this.offsets = offsets;
+        this.runs = runs;
+    }
+
+    /**
+     * @return the index of the cell at the given offset from the origin cell in the bitset of a set, -1 if it is too
+     * far away
+     */
+    static int bit(int dx, int dy) {
+        if (dx < -RADIUS || dx > RADIUS || dy < -RADIUS || dy > RADIUS) {
+            return -1;
+        }
+        return (dy + RADIUS) * SIDE + dx + RADIUS;
+    }
+
+    /**
+     * @return whether the cell at (toX, toY) is potentially visible from the cell at (fromX, fromY)
+     */
+    public boolean isVisible(int fromX, int fromY, int toX, int toY) {
+        if (!hasSet(fromX, fromY)) {
+            return true;
+        }
+        int bit = bit(toX - fromX, toY - fromY);
+        if (bit < 0) {
+            return false;
+        }
+
+        int cell = fromY * width + fromX;
+        int position = 0;
+        boolean visible = false;
+        for (int run = offsets[cell]; run < offsets[cell + 1]; run++) {
+            position += runs[run];
+            if (bit < position) {
+                return visible;
+            }
+            visible = !visible;
+        }
+        return false;
+    }
+
+    /**
+     * Decodes the set of the given cell.
+     */
+    public void visibleFrom(int cellX, int cellY, VisibleCells out) {
+        if (!hasSet(cellX, cellY)) {
+            out.reset(cellX, cellY, true);
+            return;
+        }
+        out.reset(cellX, cellY, false);
+
+        int cell = cellY * width + cellX;
+        int position = 0;
+        boolean visible = false;
+        for (int run = offsets[cell]; run < offsets[cell + 1]; run++) {
+            int end = position + runs[run];
+            if (visible) {
+                out.set(position, end);
+            }
+            position = end;
+            visible = !visible;
+        }
+    }
+
+    private boolean hasSet(int cellX, int cellY) {
+        if (cellX < 0 || cellY < 0 || cellX >= width || cellY >= height) {
+            return false;
+        }
+        int cell = cellY * width + cellX;
+        return offsets[cell + 1] > offsets[cell];
+    }
+
+    /**
+     * @return the number of runs of all the sets
+     */
+    public int getRunCount() {
+        return runs.length;
+    }
+
+    /**
+     * Computes the set of every walkable cell of the grid, the rows of the grid in parallel.
+     */
+    public static PotentiallyVisibleSet compute(WorldGrid grid) {
+        long start = System.nanoTime();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+
+        // runs of every row, then the offset of the runs of every cell of the row
+        char[][] rowRuns = new char[height][];
+        int[][] rowOffsets = new int[height][];
+        IntStream.range(0, height).parallel().forEach(cellY -> {
+            int[] offsets = new int[width + 1];
+            rowRuns[cellY] = computeRow(grid, cellY, offsets);
+            rowOffsets[cellY] = offsets;
+        });
+
+        int[] offsets = new int[width * height + 1];
+        int runCount = 0;
+        for (char[] row : rowRuns) {
+            runCount += row.length;
+        }
+        char[] runs = new char[runCount];
+        int position = 0;
+        for (int cellY = 0; cellY < height; cellY++) {
+            for (int cellX = 0; cellX < width; cellX++) {
+                offsets[cellY * width + cellX] = position + rowOffsets[cellY][cellX];
+            }
+            System.arraycopy(rowRuns[cellY], 0, runs, position, rowRuns[cellY].length);
+            position += rowRuns[cellY].length;
+        }
+        offsets[width * height] = runCount;
+
+        log.debug("potentially visible sets of {}x{} cells computed in {} ms, {} runs",
+                width, height, (System.nanoTime() - start) / 1_000_000, runCount);
+        return new PotentiallyVisibleSet(width, height, offsets, runs);
+    }
+
+    /**
+     * @param offsets filled with the index of the first run of every cell of the row, plus the end of the last one
+     * @return the runs of the cells of the row
+     */
+    private static char[] computeRow(WorldGrid grid, int cellY, int[] offsets) {
+        long[] bits = new long[(WINDOW_CELLS + 63) / 64];
+        char[] runs = new char[WINDOW_CELLS + 1];
+        int runCount = 0;
+        Lines lines = new Lines();
+
+        for (int cellX = 0; cellX < offsets.length - 1; cellX++) {
+            offsets[cellX] = runCount;
+            if (grid.isSolid(cellX, cellY)) {
+                continue;
+            }
+
+            Arrays.fill(bits, 0);
+            for (int sweep = 0; sweep < 4; sweep++) {
+                for (int slope = 0; slope < SLOPES; slope++) {
+                    double slopeFrom = -1 + 2.0 * slope / SLOPES;
+                    double slopeTo = -1 + 2.0 * (slope + 1) / SLOPES;
+                    sweep(grid, cellX, cellY, sweep, slopeFrom, slopeTo, lines, bits);
+                }
+            }
+
+            // at most one run per bit, plus the leading hidden one
+            if (runs.length - runCount < WINDOW_CELLS + 1) {
+                runs = Arrays.copyOf(runs, runs.length * 2);
+            }
+            runCount = encode(bits, runs, runCount);
+        }
+        offsets[offsets.length - 1] = runCount;
+        return Arrays.copyOf(runs, runCount);
+    }
+
+    /**
+     * Sweeps the lines leaving the origin cell in one direction with a slope in the given range, column by column,
+     * marking every cell some of them reach before being stopped.
+     * <p>
+     * Coordinates are in cells, in a frame where the origin cell is [0, 1]x[0, 1], columns are along the direction
+     * of the sweep and rows across it. A line is y = slope * x + c; for a range of slopes, the lines crossing a cell
+     * have their c in an interval, and the lines stopped by a wall for every slope of the range have it in a smaller
+     * one. The lines still going are kept as a union of intervals of c, starting with the lines through the origin
+     * cell: a cell is marked when its interval overlaps them, then the walls of its column take out theirs. Walls
+     * are only taken out between the origin column and the column of the cell, so lines reaching a cell through the
+     * walls of either column are not stopped, and a slope range lets through the lines stopped for only part of it.
+     * Both can only add cells to the set.
+     *
+     * @param sweep     0 to 3 for +x, -x, +y and -y
+     * @param slopeFrom lowest slope of the range, the range not containing 0 but at its ends
+     */
+    private static void sweep(WorldGrid grid, int originX, int originY, int sweep, double slopeFrom, double slopeTo,
+                              Lines lines, long[] bits) {
+        double maxDistance = Ray.INFINITE_DISTANCE / WorldGrid.CELL_SIZE;
+        lines.reset(intervalLow(0, 0, slopeFrom, slopeTo, false), intervalHigh(0, 0, slopeFrom, slopeTo, false));
+
+        for (int column = 0; column <= RADIUS && !lines.isEmpty(); column++) {
+            // the interval of a cell spans [row - highest, row + 1 - lowest] over the slopes of the range
+            double highest = Math.max(slopeFrom * column + Math.max(0, slopeFrom), slopeTo * column + Math.max(0, slopeTo));
+            double lowest = Math.min(slopeFrom * column + Math.min(0, slopeFrom), slopeTo * column + Math.min(0, slopeTo));
+            int firstRow = Math.max(-RADIUS, (int) Math.ceil(lines.low() + lowest - 1 - EPSILON));
+            int lastRow = Math.min(RADIUS, (int) Math.floor(lines.high() + highest + EPSILON));
+
+            double columnGap = Math.max(column - 1, 0);
+            for (int row = firstRow; row <= lastRow; row++) {
+                double rowGap = Math.max(Math.abs(row) - 1, 0);
+                if (columnGap * columnGap + rowGap * rowGap <= maxDistance * maxDistance
+                        && lines.overlaps(row - highest - EPSILON, row + 1 - lowest + EPSILON)) {
+                    int bit = sweep < 2 ? bit(sweep == 0 ? column : -column, row) : bit(row, sweep == 2 ? column : -column);
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+            if (column == 0) {
+                continue;
+            }
+
+            // whole runs of walls, so that no line slips between two walls of the same column
+            int row = firstRow;
+            while (row <= lastRow) {
+                if (!isSolid(grid, originX, originY, sweep, column, row)) {
+                    row++;
+                    continue;
+                }
+                int top = row;
+                while (top > -RADIUS - 3 && isSolid(grid, originX, originY, sweep, column, top - 1)) {
+                    top--;
+                }
+                int bottom = row;
+                while (bottom < RADIUS + 3 && isSolid(grid, originX, originY, sweep, column, bottom + 1)) {
+                    bottom++;
+                }
+                lines.remove(intervalLow(column, top, slopeFrom, slopeTo, true) + EPSILON,
+                        intervalHigh(column, bottom, slopeFrom, slopeTo, true) - EPSILON);
+                row = bottom + 2;
+            }
+        }
+    }
+
+    private static boolean isSolid(WorldGrid grid, int originX, int originY, int sweep, int column, int row) {
+        return switch (sweep) {
+            case 0 -> grid.isSolid(originX + column, originY + row);
+            case 1 -> grid.isSolid(originX - column, originY + row);
+            case 2 -> grid.isSolid(originX + row, originY + column);
+            default -> grid.isSolid(originX + row, originY - column);
+        };
+    }
+
+    /**
+     * The lines y = slope * x + c crossing the cell at (column, row) have c in [row - max(slope * x), row + 1 -
+     * min(slope * x)], x spanning the column. Both ends are linear in the slope over a range not crossing 0, so their
+     * extremes over the range are at its ends.
+     *
+     * @param everySlope whether to return the low end of the lines crossing the cell for every slope of the range
+     *                   rather than for some of them
+     * @return the low end of the interval of c of the lines crossing the cell
+     */
+    private static double intervalLow(int column, int row, double slopeFrom, double slopeTo, boolean everySlope) {
+        double from = row - slopeFrom * column - Math.max(0, slopeFrom);
+        double to = row - slopeTo * column - Math.max(0, slopeTo);
+        return everySlope ? Math.max(from, to) : Math.min(from, to);
+    }
+
+    /**
+     * @see #intervalLow(int, int, double, double, boolean)
+     */
+    private static double intervalHigh(int column, int row, double slopeFrom, double slopeTo, boolean everySlope) {
+        double from = row + 1 - slopeFrom * column - Math.min(0, slopeFrom);
+        double to = row + 1 - slopeTo * column - Math.min(0, slopeTo);
+        return everySlope ? Math.min(from, to) : Math.max(from, to);
+    }
+
+    /**
+     * Sorted union of disjoint closed intervals, the lines of a sweep still going.
+     */
+    private static final class Lines {
+
+        private double[] lows = new double[16];
+        private double[] highs = new double[16];
+        private int count;
+
+        void reset(double low, double high) {
+            lows[0] = low;
+            highs[0] = high;
+            count = 1;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        double low() {
+            return lows[0];
+        }
+
+        double high() {
+            return highs[count - 1];
+        }
+
+        boolean overlaps(double low, double high) {
+            for (int i = 0; i < count; i++) {
+                if (lows[i] <= high && highs[i] >= low) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Removes the open interval (low, high).
+         */
+        void remove(double low, double high) {
+            if (low >= high) {
+                return;
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                if (highs[i] <= low || lows[i] >= high) {
+                    continue;
+                }
+                boolean keepsLow = lows[i] <= low;
+                boolean keepsHigh = highs[i] >= high;
+                if (keepsLow && keepsHigh) {
+                    // splits the interval in two
+                    if (count == lows.length) {
+                        lows = Arrays.copyOf(lows, count * 2);
+                        highs = Arrays.copyOf(highs, count * 2);
+                    }
+                    System.arraycopy(lows, i + 1, lows, i + 2, count - i - 1);
+                    System.arraycopy(highs, i + 1, highs, i + 2, count - i - 1);
+                    lows[i + 1] = high;
+                    highs[i + 1] = highs[i];
+                    highs[i] = low;
+                    count++;
+                } else if (keepsLow) {
+                    highs[i] = low;
+                } else if (keepsHigh) {
+                    lows[i] = high;
+                } else {
+                    System.arraycopy(lows, i + 1, lows, i, count - i - 1);
+                    System.arraycopy(highs, i + 1, highs, i, count - i - 1);
+                    count--;
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Appends the runs of the bitset to the array.
+     *
+     * @return the new number of runs in the array
+     */
+    private static int encode(long[] bits, char[] runs, int runCount) {
+        boolean visible = false;
+        int length = 0;
+        for (int bit = 0; bit < WINDOW_CELLS; bit++) {
+            if (((bits[bit >>> 6] >>> bit) & 1) != 0 != visible) {
+                runs[runCount++] = (char) length;
+                visible = !visible;
+                length = 0;
+            }
+            length++;
+        }
+        runs[runCount++] = (char) length;
+        return runCount;
+    }
+
+    /**
+     * Writes the sets to the given file, atomically replacing it.
+     * <p>
+     * Layout, big endian:
+     * <pre>
+     * int   magic "RCPV"
+     * int   format version
+     * int   CRC32 of the source the map was decoded from
+     * int   width, int height, int radius
+     * then per cell, row by row: varint run count, then per run: varint run length
+     * </pre>
+     *
+     * @param sourceCrc checksum of the source the map has been decoded from
+     */
+    public void write(int sourceCrc, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(sourceCrc);
+                out.writeInt(width);
+                out.writeInt(height);
+                out.writeInt(RADIUS);
+                for (int cell = 0; cell < width * height; cell++) {
+                    writeVarint(out, offsets[cell + 1] - offsets[cell]);
+                    for (int run = offsets[cell]; run < offsets[cell + 1]; run++) {
+                        writeVarint(out, runs[run]);
+                    }
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Reads sets written by {@link #write}.
+     *
+     * @param sourceCrc checksum of the current source of the map
+     * @return the sets, or null if the file does not exist, has another format version or radius or has been
+     * computed for another source
+     * @throws IOException if the file cannot be read or is corrupted
+     */
+    public static PotentiallyVisibleSet read(Path file, int sourceCrc) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, sourceCrc);
+        }
+    }
+
+    static PotentiallyVisibleSet read(ByteBuffer buffer, int sourceCrc) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a visibility file");
+            }
+            if (buffer.getInt() != VERSION || buffer.getInt() != sourceCrc) {
+                return null;
+            }
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (buffer.getInt() != RADIUS) {
+                return null;
+            }
+            if (width < 0 || height < 0 || (long) width * height >= Integer.MAX_VALUE) {
+                throw new IOException("invalid map size " + width + "x" + height);
+            }
+
+            int[] offsets = new int[width * height + 1];
+            char[] runs = new char[1024];
+            int runCount = 0;
+            for (int cell = 0; cell < width * height; cell++) {
+                offsets[cell] = runCount;
+                int cellRuns = readVarint(buffer);
+                if (cellRuns < 0 || cellRuns > WINDOW_CELLS + 1) {
+                    throw new IOException("invalid run count " + cellRuns);
+                }
+                if (runs.length - runCount < cellRuns) {
+                    runs = Arrays.copyOf(runs, Math.max(runs.length * 2, runCount + cellRuns));
+                }
+                int covered = 0;
+                for (int run = 0; run < cellRuns; run++) {
+                    int length = readVarint(buffer);
+                    covered += length;
+                    runs[runCount++] = (char) length;
+                }
+                if (cellRuns > 0 && covered != WINDOW_CELLS) {
+                    throw new IOException("runs of cell " + cell + " cover " + covered + " cells");
+                }
+            }
+            offsets[width * height] = runCount;
+            return new PotentiallyVisibleSet(width, height, offsets, Arrays.copyOf(runs, runCount));
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated visibility file", e);
+        }
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+}
@@ -0,0 +1,162 @@
+package dev.gidan.raycastfx.world;
+
+import dev.gidan.raycastfx.util.Ray;
+import dev.gidan.raycastfx.util.Vec2D;
+import lombok.Getter;
+
+/**
+ * Grid traversal engine based on a digital differential analyzer (DDA).
+ * <p>
+ * A ray is walked cell by cell: for each axis the distance to the next grid line and the distance between two
+ * grid lines are computed once per ray, then every step only compares and adds those values, so the inner loop
+ * has no trigonometry and allocates nothing.
+ * <p>
+ * The result of the last cast is kept in the caster itself, which makes an instance not thread safe:
+ * use one caster per thread.
+ */
+public class RayCaster {
+
+    /**
+     * The ray started inside a wall, so no face has been crossed.
+     */
+    public static final byte SIDE_NONE = 0;
+    /**
+     * The ray hit a face lying on a vertical grid line (west or east face of a wall).
+     */
+    public static final byte SIDE_VERTICAL = 1;
+    /**
+     * The ray hit a face lying on a horizontal grid line (north or south face of a wall).
+     */
+    public static final byte SIDE_HORIZONTAL = 2;
+
+    private final WorldGrid grid;
+
+    @Getter
+    private Ray.Status status;
+    @Getter
+    private double hitX;
+    @Getter
+    private double hitY;
+    @Getter
+    private double distance;
+    @Getter
+    private byte side;
+    @Getter
+    private int cellX;
+    @Getter
+    private int cellY;
+    /**
+     * Content of the cell that has been hit, {@link OccupancyGrid#EMPTY} if nothing has been hit
+     */
+    @Getter
+    private byte cell;
+    @Getter
+    private int cellsTraversed;
+
+    public RayCaster(WorldGrid grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Casts a ray and returns the outcome as a {@link Ray} instance, mirroring
+     * {@link #cast(double, double, double, double, double)}.
+     */
+    public Ray cast(Ray ray) {
+        Vec2D origin = ray.origin();
+        Vec2D direction = ray.direction();
+        cast(origin.getX(), origin.getY(), direction.getX(), direction.getY(), Ray.INFINITE_DISTANCE);
+        return ray.withStatus(status).withCollisionPoint(Vec2D.of(hitX, hitY));
+    }
+
+    /**
+     * Walks the grid from the origin along the given direction until a solid cell is entered or the max distance
+     * is exceeded.
+     *
+     * @param directionX  x component of the direction, expected to be normalized
+     * @param directionY  y component of the direction, expected to be normalized
+     * @param maxDistance distance after which the ray is considered {@link Ray.Status#INFINITE}
+     * @return {@link Ray.Status#COLLIDING} if a wall has been hit, {@link Ray.Status#INFINITE} otherwise
+     */
+    public Ray.Status cast(double originX, double originY, double directionX, double directionY, double maxDistance) {
+        double cellSize = WorldGrid.CELL_SIZE;
+
+        int x = WorldGrid.toCell(originX);
+        int y = WorldGrid.toCell(originY);
+
+        // distance along the ray between two consecutive vertical (or horizontal) grid lines
+        double deltaDistanceX = directionX == 0 ? Double.POSITIVE_INFINITY : Math.abs(cellSize / directionX);
+        double deltaDistanceY = directionY == 0 ? Double.POSITIVE_INFINITY : Math.abs(cellSize / directionY);
+
+        int stepX;
+        int stepY;
+        // distance along the ray from the origin to the first vertical (or horizontal) grid line
+        double sideDistanceX;
+        double sideDistanceY;
+
+        if (directionX < 0) {
+            stepX = -1;
+            sideDistanceX = (originX - x * cellSize) / -directionX;
+        } else {
+            stepX = 1;
+            sideDistanceX = directionX == 0 ? Double.POSITIVE_INFINITY : ((x + 1) * cellSize - originX) / directionX;
+        }
+
+        if (directionY < 0) {
+            stepY = -1;
+            sideDistanceY = (originY - y * cellSize) / -directionY;
+        } else {
+            stepY = 1;
+            sideDistanceY = directionY == 0 ? Double.POSITIVE_INFINITY : ((y + 1) * cellSize - originY) / directionY;
+        }
+
+        double travelled = 0;
+        byte hitSide = SIDE_NONE;
+        int traversed = 0;
+        boolean hit = grid.isSolid(x, y);
+
+        while (!hit) {
+            if (sideDistanceX < sideDistanceY) {
+                travelled = sideDistanceX;
+                sideDistanceX += deltaDistanceX;
+                x += stepX;
+                hitSide = SIDE_VERTICAL;
+            } else {
+                travelled = sideDistanceY;
+                sideDistanceY += deltaDistanceY;
+                y += stepY;
+                hitSide = SIDE_HORIZONTAL;
+            }
+
+            // if not colliding yet, but distance is greater than threshold, we'll assume that,
+            // even if at some point it will collide with something,
+            // we will not be able to see it.
+            if (travelled > maxDistance) {
+                break;
+            }
+
+            traversed++;
+            hit = grid.isSolid(x, y);
+        }
+
+        cellX = x;
+        cellY = y;
+        cellsTraversed = traversed;
+
+        if (hit) {
+            status = Ray.Status.COLLIDING;
+            distance = travelled;
+            side = hitSide;
+            cell = grid.get(x, y);
+        } else {
+            status = Ray.Status.INFINITE;
+            distance = maxDistance;
+            side = SIDE_NONE;
+            cell = OccupancyGrid.EMPTY;
+        }
+
+        hitX = originX + directionX * distance;
+        hitY = originY + directionY * distance;
+        return status;
+    }
+
+}
@@ -0,0 +1,72 @@
+package dev.gidan.raycastfx.world;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * The cells potentially visible from one cell, decoded from a {@link PotentiallyVisibleSet} into a plain bitset so
+ * that every query is a single bit test.
+ * <p>
+ * The bitset covers the square of cells within {@link PotentiallyVisibleSet#RADIUS} of the origin cell; every cell
+ * outside of it is out of sight. Meant to be decoded once per frame, for the cell of the camera, and reused.
+ */
+public class VisibleCells {
+
+    private final long[] bits = new long[(PotentiallyVisibleSet.WINDOW_CELLS + 63) / 64];
+
+    @Getter
+    private int originX;
+    @Getter
+    private int originY;
+
+    /**
+     * Whether nothing is known about the origin cell, which makes every cell potentially visible
+     */
+    private boolean unknown = true;
+
+    void reset(int originX, int originY, boolean unknown) {
+        this.originX = originX;
+        this.originY = originY;
+        this.unknown = unknown;
+        Arrays.fill(bits, 0);
+    }
+
+    void set(int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    /**
+     * Sets the bits [from, to).
+     */
+    void set(int from, int to) {
+        for (int bit = from; bit < to; bit++) {
+            set(bit);
+        }
+    }
+
+    public boolean contains(int cellX, int cellY) {
+        if (unknown) {
+            return true;
+        }
+        int bit = PotentiallyVisibleSet.bit(cellX - originX, cellY - originY);
+        return bit >= 0 && (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * @return whether any cell overlapping the given square of world positions is potentially visible
+     */
+    public boolean containsAround(double worldX, double worldY, double halfSide) {
+        int toX = WorldGrid.toCell(worldX + halfSide);
+        int toY = WorldGrid.toCell(worldY + halfSide);
+        for (int cellY = WorldGrid.toCell(worldY - halfSide); cellY <= toY; cellY++) {
+            for (int cellX = WorldGrid.toCell(worldX - halfSide); cellX <= toX; cellX++) {
+                if (contains(cellX, cellY)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,54 @@
+package dev.gidan.raycastfx.world;
+
+/**
+ * Read access to the cells of the world, whatever the way they are stored.
+ * Cells outside the grid are empty, as the world has no walls beyond the map borders.
+ * Implementations must support concurrent readers: rays are cast from several threads while the simulation moves
+ * the player.
+ */
+public interface WorldGrid {
+
+    /**
+     * Side of a grid cell, in world units
+     */
+    int CELL_SIZE = 20;
+
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * @return the content of the cell, {@link OccupancyGrid#EMPTY} outside the grid
+     */
+    byte get(int cellX, int cellY);
+
+    default boolean contains(int cellX, int cellY) {
+        return cellX >= 0 && cellY >= 0 && cellX < getWidth() && cellY < getHeight();
+    }
+
+    default boolean isSolid(int cellX, int cellY) {
+        return get(cellX, cellY) != OccupancyGrid.EMPTY;
+    }
+
+    /**
+     * @return whether the grid cell containing the given world position is solid
+     */
+    default boolean isSolidAt(double worldX, double worldY) {
+        return isSolid(toCell(worldX), toCell(worldY));
+    }
+
+    /**
+     * Hints that the cells around the given one are about to be read, so storage that loads cells lazily can fetch
+     * them ahead of time. Does nothing by default.
+     */
+    default void prefetchAround(int cellX, int cellY) {
+    }
+
+    /**
+     * Converts a world coordinate to the index of the grid cell containing it.
+     */
+    static int toCell(double world) {
+        return (int) Math.floor(world / CELL_SIZE);
+    }
+
+}
@@ -4,11 +4,18 @@ module dev.gidan.raycastfx {
     requires static lombok;
     requires ch.qos.logback.classic;
     requires org.slf4j;
+    requires jdk.jfr;
+    requires java.desktop;
 
 
     opens dev.gidan.raycastfx to javafx.fxml;
     exports dev.gidan.raycastfx;
     exports dev.gidan.raycastfx.util;
     exports dev.gidan.raycastfx.prefabs;
+    exports dev.gidan.raycastfx.world;
+    exports dev.gidan.raycastfx.render;
+    exports dev.gidan.raycastfx.jfr;
+    exports dev.gidan.raycastfx.headless;
+    exports dev.gidan.raycastfx.entity;
     opens dev.gidan.raycastfx.prefabs to javafx.fxml;
 }
\ No newline at end of file
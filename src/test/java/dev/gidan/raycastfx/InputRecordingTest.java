@@ -0,0 +1,109 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.world.MapData;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.WorldGrid;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputRecordingTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTrips() throws IOException {
+        InputRecording recording = new InputRecording(60);
+        recording.add(new InputSnapshot(InputSnapshot.FORWARD | InputSnapshot.TURN_LEFT, 10.5f, 20));
+        recording.add(InputSnapshot.NONE);
+        recording.add(new InputSnapshot(InputSnapshot.STRAFE_RIGHT, -1, 300));
+        Path file = directory.resolve("session.rcinput");
+
+        recording.write(file);
+        InputRecording read = InputRecording.read(file);
+
+        assertEquals(60, read.getTickRate());
+        assertEquals(3, read.getSize());
+        for (int tick = 0; tick < 3; tick++) {
+            assertEquals(recording.get(tick), read.get(tick));
+        }
+        assertTrue(read.get(0).isMovingForward());
+        assertTrue(read.get(0).isTurningLeft());
+        assertFalse(read.get(0).isTurningRight());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("map.png");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> InputRecording.read(file));
+    }
+
+    @Test
+    void replaysThenStopsInput() {
+        InputRecording recording = new InputRecording(30);
+        Supplier<InputSnapshot> recorded = recording.record(() -> new InputSnapshot(InputSnapshot.BACKWARD, 1, 2));
+        recorded.get();
+        recorded.get();
+
+        Supplier<InputSnapshot> replay = recording.replay();
+        assertTrue(replay.get().isMovingBackward());
+        assertTrue(replay.get().isMovingBackward());
+        assertEquals(InputSnapshot.NONE, replay.get());
+    }
+
+    @Test
+    void replaysDeterministically() {
+        InputRecording recording = new InputRecording(60);
+        Random random = new Random(5);
+        for (int tick = 0; tick < 600; tick++) {
+            // holds every combination of keys for a quarter of a second
+            int actions = tick % 15 == 0 ? random.nextInt(64) : recording.get(tick - 1).actions();
+            recording.add(new InputSnapshot(actions, 0, 0));
+        }
+
+        GameState first = replay(recording);
+        GameState second = replay(recording);
+
+        assertEquals(first.getPlayer().getX(), second.getPlayer().getX());
+        assertEquals(first.getPlayer().getY(), second.getPlayer().getY());
+        assertEquals(first.getPlayer().getRotationX(), second.getPlayer().getRotationX());
+        assertEquals(first.getPlayer().getDistance(), second.getPlayer().getDistance());
+        // the player did move
+        assertNotEquals(10.5 * WorldGrid.CELL_SIZE, first.getPlayer().getX());
+    }
+
+    private static GameState replay(InputRecording recording) {
+        GameState gameState = new GameState(room());
+        Supplier<InputSnapshot> input = recording.replay();
+        for (int tick = 0; tick < recording.getSize(); tick++) {
+            gameState.update(1.0 / recording.getTickRate(), input.get());
+        }
+        return gameState;
+    }
+
+    /**
+     * 20x20 cells enclosed by walls, with a pillar and the player spawn in the middle
+     */
+    private static MapData room() {
+        OccupancyGrid grid = new OccupancyGrid(20, 20);
+        for (int i = 0; i < 20; i++) {
+            grid.set(i, 0, OccupancyGrid.WALL);
+            grid.set(i, 19, OccupancyGrid.WALL);
+            grid.set(0, i, OccupancyGrid.WALL);
+            grid.set(19, i, OccupancyGrid.WALL);
+        }
+        grid.set(12, 10, OccupancyGrid.WALL);
+        return new MapData(grid, List.of(new MapData.Spawn(10, 10, MapData.PLAYER_SPAWN_RGB)));
+    }
+
+}
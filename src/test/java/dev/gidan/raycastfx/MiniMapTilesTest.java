@@ -0,0 +1,73 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.util.ColorUtil;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MiniMapTilesTest {
+
+    private static final int LEVEL = 0;
+
+    @Test
+    void rasterizesEachTileOnce() {
+        MiniMapTiles tiles = new MiniMapTiles(new OccupancyGrid(400, 400), true);
+
+        WritableImage tile = tiles.tile(LEVEL, 1, 2);
+        assertEquals(1, tiles.getRasterizedTiles());
+        // a hit
+        assertSame(tile, tiles.tile(LEVEL, 1, 2));
+        assertEquals(1, tiles.getRasterizedTiles());
+        // a miss, on another tile and on the same tile at another level
+        assertNotSame(tile, tiles.tile(LEVEL, 2, 1));
+        assertNotSame(tile, tiles.tile(LEVEL + 1, 1, 2));
+        assertEquals(3, tiles.getRasterizedTiles());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedTile() {
+        MiniMapTiles tiles = new MiniMapTiles(new OccupancyGrid(400, 400), true);
+
+        WritableImage first = tiles.tile(LEVEL, 0, 0);
+        WritableImage second = tiles.tile(LEVEL, 1, 0);
+        for (int i = 2; i < MiniMapTiles.MAX_CACHED_TILES; i++) {
+            tiles.tile(LEVEL, i % 10, i / 10);
+            // keeps the first tile recently used
+            tiles.tile(LEVEL, 0, 0);
+        }
+        assertEquals(MiniMapTiles.MAX_CACHED_TILES, tiles.getRasterizedTiles());
+
+        // one tile too many evicts the second tile, the least recently used
+        tiles.tile(LEVEL, 0, 7);
+        assertSame(first, tiles.tile(LEVEL, 0, 0));
+        assertEquals(MiniMapTiles.MAX_CACHED_TILES + 1, tiles.getRasterizedTiles());
+        assertNotSame(second, tiles.tile(LEVEL, 1, 0));
+        assertEquals(MiniMapTiles.MAX_CACHED_TILES + 2, tiles.getRasterizedTiles());
+    }
+
+    @Test
+    void sharesOneTileOutsideTheMap() {
+        MiniMapTiles tiles = new MiniMapTiles(new OccupancyGrid(10, 10), true);
+
+        WritableImage outside = tiles.tile(LEVEL, -1, 0);
+        assertSame(outside, tiles.tile(LEVEL, 5, 5));
+        assertSame(outside, tiles.tile(LEVEL, 0, -3));
+        assertEquals(1, tiles.getRasterizedTiles());
+    }
+
+    @Test
+    void drawsWallsInTheirColor() {
+        OccupancyGrid grid = new OccupancyGrid(10, 10);
+        grid.set(1, 0, OccupancyGrid.WALL);
+        MiniMapTiles tiles = new MiniMapTiles(grid, false);
+
+        WritableImage tile = tiles.tile(LEVEL, 0, 0);
+        int cellSize = MiniMapTiles.cellSize(LEVEL);
+        assertEquals(ColorUtil.toArgb(Color.DARKRED), tile.getPixelReader().getArgb(cellSize + 1, 1));
+        assertEquals(0, tile.getPixelReader().getArgb(1, 1));
+    }
+
+}
@@ -0,0 +1,50 @@
+package dev.gidan.raycastfx;
+
+import dev.gidan.raycastfx.entity.EntitySnapshot;
+import dev.gidan.raycastfx.prefabs.Player;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlayerViewTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void interpolatesPositionBetweenSnapshots() {
+        WorldSnapshot previous = new WorldSnapshot(1, 0, 10, 20, 1, 0, Player.Status.WALKING, 0, EntitySnapshot.EMPTY);
+        WorldSnapshot current = new WorldSnapshot(2, 100, 20, 40, 1, 0, Player.Status.WALKING, 10, EntitySnapshot.EMPTY);
+
+        PlayerView view = new PlayerView();
+        view.interpolate(previous, current, 0.25);
+
+        assertEquals(12.5, view.getX(), EPSILON);
+        assertEquals(25, view.getY(), EPSILON);
+        assertEquals(2.5, view.getWalkDistance(), EPSILON);
+        assertEquals(Player.Status.WALKING, view.getStatus());
+    }
+
+    @Test
+    void keepsRotationNormalized() {
+        WorldSnapshot previous = new WorldSnapshot(1, 0, 0, 0, 1, 0, Player.Status.IDLE, 0, EntitySnapshot.EMPTY);
+        WorldSnapshot current = new WorldSnapshot(2, 100, 0, 0, 0, 1, Player.Status.IDLE, 0, EntitySnapshot.EMPTY);
+
+        PlayerView view = new PlayerView();
+        view.interpolate(previous, current, 0.5);
+
+        assertEquals(Math.sqrt(0.5), view.getRotationX(), EPSILON);
+        assertEquals(Math.sqrt(0.5), view.getRotationY(), EPSILON);
+    }
+
+    @Test
+    void wrapsWalkCycle() {
+        WorldSnapshot previous = new WorldSnapshot(1, 0, 0, 0, 1, 0, Player.Status.WALKING, 350, EntitySnapshot.EMPTY);
+        WorldSnapshot current = new WorldSnapshot(2, 100, 0, 0, 1, 0, Player.Status.WALKING, 10, EntitySnapshot.EMPTY);
+
+        PlayerView view = new PlayerView();
+        view.interpolate(previous, current, 0.5);
+
+        assertEquals(0, view.getWalkDistance(), EPSILON);
+    }
+
+}
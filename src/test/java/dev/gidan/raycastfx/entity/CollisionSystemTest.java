@@ -0,0 +1,82 @@
+package dev.gidan.raycastfx.entity;
+
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.WorldGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollisionSystemTest {
+
+    private static final double DELTA = 1e-6;
+
+    @Test
+    void pushesOverlappingBodiesApart() {
+        EntityStore store = new EntityStore();
+        int first = body(store, 100, 100, 5);
+        int second = body(store, 106, 100, 5);
+        int point = store.create(103, 100, 0);
+
+        CollisionSystem collision = new CollisionSystem(new OccupancyGrid(20, 20));
+        collision.update(store, 1);
+
+        assertEquals(98, store.x(store.index(first)), DELTA);
+        assertEquals(108, store.x(store.index(second)), DELTA);
+        assertEquals(100, store.y(store.index(second)), DELTA);
+        // points have no body
+        assertEquals(103, store.x(store.index(point)));
+        assertEquals(1, collision.getContacts());
+    }
+
+    @Test
+    void doesNotPushBodiesIntoWalls() {
+        OccupancyGrid grid = new OccupancyGrid(20, 20);
+        grid.set(4, 5, OccupancyGrid.WALL);
+        EntityStore store = new EntityStore();
+        // the first body rests against the wall on its left
+        int first = body(store, 5 * WorldGrid.CELL_SIZE + 5.5, 110, 5);
+        body(store, 5 * WorldGrid.CELL_SIZE + 12, 110, 5);
+
+        new CollisionSystem(grid).update(store, 1);
+
+        assertTrue(store.x(store.index(first)) - 5 > 5 * WorldGrid.CELL_SIZE);
+    }
+
+    @Test
+    void findsEveryContact() {
+        // bodies spread on a lattice, half of them overlapped by a partner in a random direction
+        EntityStore store = new EntityStore();
+        Random random = new Random(3);
+        int expected = 0;
+        for (int i = 0; i < 40; i++) {
+            for (int j = 0; j < 40; j++) {
+                double x = i * 50 + random.nextDouble() * 10;
+                double y = j * 50 + random.nextDouble() * 10;
+                double radius = 1 + random.nextDouble() * 4;
+                body(store, x, y, radius);
+                if (random.nextBoolean()) {
+                    double angle = random.nextDouble() * 2 * Math.PI;
+                    double distance = random.nextDouble() * 2 * radius;
+                    body(store, x + Math.cos(angle) * distance, y + Math.sin(angle) * distance, radius);
+                    expected++;
+                }
+            }
+        }
+
+        CollisionSystem collision = new CollisionSystem(new OccupancyGrid(1, 1));
+        collision.update(store, 1);
+
+        assertEquals(expected, collision.getContacts());
+        // about as many distance tests as bodies, not as pairs of bodies
+        assertTrue(collision.getPairTests() < store.getSize() * 4);
+    }
+
+    private static int body(EntityStore store, double x, double y, double radius) {
+        int id = store.create(x, y, 0);
+        store.setRadius(store.index(id), radius);
+        return id;
+    }
+
+}
@@ -0,0 +1,82 @@
+package dev.gidan.raycastfx.entity;
+
+import dev.gidan.raycastfx.render.Sprites;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityStoreTest {
+
+    @Test
+    void keepsIdsAcrossRemovals() {
+        EntityStore store = new EntityStore();
+        int first = store.create(1, 1, 0);
+        int second = store.create(2, 2, 0);
+        int third = store.create(3, 3, 0);
+
+        store.remove(first);
+
+        assertEquals(2, store.getSize());
+        assertFalse(store.contains(first));
+        assertEquals(3, store.x(store.index(third)));
+        assertEquals(2, store.x(store.index(second)));
+        assertThrows(IllegalArgumentException.class, () -> store.index(first));
+
+        // the slot of the removed entity is reused under a new id, the old id stays removed
+        int fourth = store.create(4, 4, 0);
+        assertNotEquals(first, fourth);
+        assertEquals(EntityStore.slot(first), EntityStore.slot(fourth));
+        assertEquals(4, store.x(store.index(fourth)));
+        assertFalse(store.contains(first));
+        assertThrows(IllegalArgumentException.class, () -> store.index(first));
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        EntityStore store = new EntityStore();
+        for (int i = 0; i < 1000; i++) {
+            int id = store.create(i, -i, EntityStore.SPRITE);
+            store.setVelocity(store.index(id), i, 0);
+        }
+
+        assertEquals(1000, store.getSize());
+        assertEquals(999, store.x(store.index(999)));
+        assertEquals(-999, store.y(store.index(999)));
+        assertEquals(999, store.velocityX(store.index(999)));
+        assertTrue(store.hasFlags(store.index(500), EntityStore.SPRITE));
+    }
+
+    @Test
+    void interpolatesSnapshotsById() {
+        EntityStore store = new EntityStore();
+        int removed = store.create(0, 0, EntityStore.SPRITE);
+        int moving = store.create(10, 0, EntityStore.SPRITE);
+        store.create(50, 50, 0);
+        EntitySnapshot previous = EntitySnapshot.capture(store);
+
+        store.remove(removed);
+        store.setPosition(store.index(moving), 20, 0);
+        int created = store.create(100, 100, EntityStore.SPRITE);
+        EntitySnapshot current = EntitySnapshot.capture(store);
+        assertEquals(2, current.size());
+
+        Sprites sprites = new Sprites();
+        EntitySnapshot.interpolate(previous, current, 0.5, sprites);
+
+        // swap-removal moved the entities around, they are still matched by id
+        assertEquals(2, sprites.getSize());
+        int sprite = current.indexOf(moving);
+        assertEquals(15, sprites.x(sprite));
+        assertEquals(0, sprites.y(sprite));
+        // the new entity took the slot of the removed one, it is not interpolated from it
+        assertEquals(EntityStore.slot(removed), EntityStore.slot(created));
+        assertEquals(-1, previous.indexOf(created));
+        int createdSprite = current.indexOf(created);
+        assertNotEquals(sprite, createdSprite);
+        assertEquals(100, sprites.x(createdSprite));
+        assertEquals(100, sprites.y(createdSprite));
+        assertEquals(-1, current.indexOf(removed));
+        assertEquals(-1, previous.indexOf(store.getSlotCapacity() + 1));
+    }
+
+}
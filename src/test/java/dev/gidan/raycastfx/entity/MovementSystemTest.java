@@ -0,0 +1,87 @@
+package dev.gidan.raycastfx.entity;
+
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.WorldGrid;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementSystemTest {
+
+    private static final double CENTER = 2.5 * WorldGrid.CELL_SIZE;
+
+    /**
+     * 5x5 cells, walls on the border only
+     */
+    private static OccupancyGrid room() {
+        OccupancyGrid grid = new OccupancyGrid(5, 5);
+        for (int i = 0; i < 5; i++) {
+            grid.set(i, 0, OccupancyGrid.WALL);
+            grid.set(i, 4, OccupancyGrid.WALL);
+            grid.set(0, i, OccupancyGrid.WALL);
+            grid.set(4, i, OccupancyGrid.WALL);
+        }
+        return grid;
+    }
+
+    @Test
+    void movesByVelocity() {
+        EntityStore store = new EntityStore();
+        int id = store.create(CENTER, CENTER, 0);
+        store.setVelocity(store.index(id), 10, -5);
+
+        new MovementSystem(room()).update(store, 0.5);
+
+        assertEquals(CENTER + 5, store.x(store.index(id)));
+        assertEquals(CENTER - 2.5, store.y(store.index(id)));
+        assertFalse(store.hasFlags(store.index(id), EntityStore.BLOCKED));
+    }
+
+    @Test
+    void stopsAtWalls() {
+        EntityStore store = new EntityStore();
+        int id = store.create(CENTER, CENTER, 0);
+        store.setVelocity(store.index(id), 2 * WorldGrid.CELL_SIZE, 0);
+
+        new MovementSystem(room()).update(store, 1);
+
+        int index = store.index(id);
+        assertEquals(4 * WorldGrid.CELL_SIZE, store.x(index), 1e-4);
+        assertTrue(store.x(index) < 4 * WorldGrid.CELL_SIZE);
+        assertEquals(0, store.velocityX(index));
+        assertTrue(store.hasFlags(index, EntityStore.BLOCKED));
+    }
+
+    @Test
+    void slidesAlongWalls() {
+        EntityStore store = new EntityStore();
+        int id = store.create(CENTER, CENTER, 0);
+        int index = store.index(id);
+        store.setRadius(index, 5);
+        store.setVelocity(index, 2 * WorldGrid.CELL_SIZE, 10);
+
+        new MovementSystem(room()).update(store, 1);
+
+        assertEquals(4 * WorldGrid.CELL_SIZE - 5, store.x(index), 1e-4);
+        assertEquals(CENTER + 10, store.y(index));
+        assertEquals(0, store.velocityX(index));
+        assertEquals(10, store.velocityY(index));
+        assertTrue(store.hasFlags(index, EntityStore.BLOCKED));
+    }
+
+    @Test
+    void removesProjectilesHittingWalls() {
+        EntityStore store = new EntityStore();
+        int projectile = store.create(CENTER, CENTER, EntityStore.PROJECTILE);
+        int other = store.create(CENTER, CENTER, 0);
+        store.setVelocity(store.index(projectile), 0, 2 * WorldGrid.CELL_SIZE);
+
+        MovementSystem movement = new MovementSystem(room());
+        movement.update(store, 1);
+
+        assertFalse(store.contains(projectile));
+        assertTrue(store.contains(other));
+        assertEquals(1, movement.getCollisionChecks());
+    }
+
+}
@@ -0,0 +1,36 @@
+package dev.gidan.raycastfx.headless;
+
+import dev.gidan.raycastfx.world.WorldGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CameraPathTest {
+
+    @Test
+    void interpolatesBetweenKeyframes() {
+        CameraPath path = new CameraPath(List.of(
+                new CameraPath.Pose(0, 0, 0),
+                new CameraPath.Pose(100, 0, 90),
+                new CameraPath.Pose(100, 100, 180)));
+
+        assertEquals(new CameraPath.Pose(0, 0, 0), path.at(0));
+        assertEquals(new CameraPath.Pose(50, 0, 45), path.at(0.25));
+        assertEquals(new CameraPath.Pose(100, 0, 90), path.at(0.5));
+        assertEquals(new CameraPath.Pose(100, 100, 180), path.at(1));
+        assertEquals(new CameraPath.Pose(100, 100, 180), path.at(2));
+    }
+
+    @Test
+    void parsesCellCoordinates() {
+        CameraPath path = CameraPath.parse(List.of("# start", "1 2 0", "", "1.5 2 90"));
+
+        assertEquals(new CameraPath.Pose(WorldGrid.CELL_SIZE, 2 * WorldGrid.CELL_SIZE, 0), path.at(0));
+        assertEquals(new CameraPath.Pose(1.5 * WorldGrid.CELL_SIZE, 2 * WorldGrid.CELL_SIZE, 90), path.at(1));
+        assertThrows(IllegalArgumentException.class, () -> CameraPath.parse(List.of("1 2")));
+        assertThrows(IllegalArgumentException.class, () -> CameraPath.parse(List.of("# nothing")));
+    }
+
+}
@@ -0,0 +1,48 @@
+package dev.gidan.raycastfx.headless;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameTimesTest {
+
+    @Test
+    void reportsNearestRankPercentiles() {
+        FrameTimes times = new FrameTimes(100);
+        // 1.000 ms to 1.099 ms, recorded out of order
+        for (int i = 99; i >= 0; i--) {
+            times.record(1_000_000 + i * 1_000L);
+        }
+        times.sort();
+
+        assertEquals(1_049_500, times.mean());
+        assertEquals(1_000_000, times.percentile(0));
+        assertEquals(1_049_000, times.percentile(50));
+        assertEquals(1_098_000, times.percentile(99));
+        assertEquals(1_099_000, times.percentile(100));
+        assertEquals(1_099_000, times.max());
+    }
+
+    @Test
+    void keepsSlowFramesExact() {
+        FrameTimes times = new FrameTimes(3);
+        times.record(80_000_000);
+        times.record(120_000_000);
+        times.record(70_000_000);
+        times.sort();
+
+        assertEquals(80_000_000, times.percentile(50));
+        assertEquals(120_000_000, times.percentile(99));
+    }
+
+    @Test
+    void reportsZeroWithoutFrames() {
+        FrameTimes times = new FrameTimes(0);
+        times.sort();
+
+        assertEquals(0, times.mean());
+        assertEquals(0, times.percentile(50));
+        assertEquals(0, times.max());
+    }
+
+}
@@ -0,0 +1,67 @@
+package dev.gidan.raycastfx.render;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundGradientTest {
+
+    private static final int WIDTH = 8;
+    private static final int HEIGHT = 100;
+    private static final int MARGIN = 5;
+
+    @Test
+    void rebuildsOnlyWhenResized() {
+        BackgroundGradient gradient = new BackgroundGradient(0x808080, 0.15, 0.25, 5, MARGIN);
+        assertTrue(gradient.resize(WIDTH, HEIGHT));
+        int[] pixels = gradient.getPixels();
+
+        assertFalse(gradient.resize(WIDTH, HEIGHT));
+        assertSame(pixels, gradient.getPixels());
+
+        assertTrue(gradient.resize(WIDTH, HEIGHT + 1));
+        assertEquals(WIDTH * (HEIGHT + 1 + 2 * MARGIN), gradient.getPixels().length);
+    }
+
+    @Test
+    void brightensTowardsTheEdges() {
+        BackgroundGradient gradient = new BackgroundGradient(0x808080, 0.15, 0.25, 5, MARGIN);
+        gradient.resize(WIDTH, HEIGHT);
+        int[] pixels = gradient.getPixels();
+        int rows = HEIGHT + 2 * MARGIN;
+
+        assertEquals(gray(0.15), pixels[0]);
+        assertEquals(gray(0.25), pixels[(rows - 1) * WIDTH]);
+        assertTrue(blue(pixels[(rows / 2 - 1) * WIDTH]) < blue(pixels[0]));
+        assertTrue(blue(pixels[rows / 2 * WIDTH]) < blue(pixels[(rows - 1) * WIDTH]));
+    }
+
+    @Test
+    void copiesShiftedRows() {
+        BackgroundGradient gradient = new BackgroundGradient(0x808080, 0.15, 0.25, 5, MARGIN);
+        gradient.resize(WIDTH, HEIGHT);
+        Framebuffer framebuffer = new Framebuffer(WIDTH, HEIGHT);
+
+        for (int yOffset = -MARGIN; yOffset <= MARGIN; yOffset++) {
+            gradient.copyTo(framebuffer, yOffset);
+            // the horizon moves down with the offset
+            int horizon = HEIGHT / 2 + yOffset;
+            assertEquals(gradient.getPixels()[(horizon + MARGIN - yOffset) * WIDTH], framebuffer.getPixels()[horizon * WIDTH]);
+            assertEquals(gradient.getPixels()[(MARGIN - yOffset) * WIDTH], framebuffer.getPixels()[0]);
+        }
+
+        // offsets larger than the margin are clamped
+        assertEquals(0, gradient.firstRow(MARGIN + 3));
+        assertEquals(2 * MARGIN, gradient.firstRow(-MARGIN - 3));
+    }
+
+    private static int gray(double brightness) {
+        int value = (int) Math.round(brightness * 255);
+        return Framebuffer.argb(255, value, value, value);
+    }
+
+    private static int blue(int argb) {
+        return argb & 0xFF;
+    }
+
+}
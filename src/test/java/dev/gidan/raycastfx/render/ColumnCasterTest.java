@@ -0,0 +1,55 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.util.Vec2D;
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ColumnCasterTest {
+
+    @Test
+    public void parallelCastMatchesSerialCast() {
+        OccupancyGrid grid = new OccupancyGrid(64, 64);
+        Random random = new Random(42);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (random.nextInt(5) == 0) {
+                    grid.set(x, y, OccupancyGrid.WALL);
+                }
+            }
+        }
+        grid.set(32, 32, OccupancyGrid.EMPTY);
+
+        Vec2D origin = Vec2D.of(32 * 20 + 7.5, 32 * 20 + 13.25);
+        int columns = 1001;
+        Camera camera = new Camera();
+        camera.configure(90, columns);
+
+        try (ColumnCaster serial = new ColumnCaster(grid, 1);
+             ColumnCaster parallel = new ColumnCaster(grid, 4)) {
+            for (int frame = 0; frame < 36; frame++) {
+                Vec2D rotation = Vec2D.UP.rotateDeg(frame * 10);
+                RayBuffer expected = serial.cast(origin, rotation, camera);
+                RayBuffer actual = parallel.cast(origin, rotation, camera);
+
+                assertEquals(columns, actual.getSize());
+                for (int column = 0; column < columns; column++) {
+                    String message = "column " + column + " of frame " + frame;
+                    assertEquals(expected.status(column), actual.status(column), message);
+                    assertEquals(expected.side(column), actual.side(column), message);
+                    assertEquals(expected.cell(column), actual.cell(column), message);
+                    assertEquals(expected.hitX(column), actual.hitX(column), message);
+                    assertEquals(expected.hitY(column), actual.hitY(column), message);
+                    assertEquals(expected.distance(column), actual.distance(column), message);
+                    assertEquals(expected.depth(column), actual.depth(column), message);
+                    assertEquals(expected.directionX(column), actual.directionX(column), message);
+                    assertEquals(expected.directionY(column), actual.directionY(column), message);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package dev.gidan.raycastfx.render;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResolutionControllerTest {
+
+    private static final long BUDGET_NANOS = 10_000_000;
+    private static final int MAX_COLUMNS = 800;
+
+    /**
+     * Feeds a whole window of frames taking the same time.
+     *
+     * @return the columns to render after the window
+     */
+    private static int window(ResolutionController controller, long frameNanos, int columns) {
+        int next = columns;
+        for (int frame = 0; frame < ResolutionController.WINDOW_FRAMES; frame++) {
+            next = controller.update(frameNanos, columns, MAX_COLUMNS);
+        }
+        return next;
+    }
+
+    @Test
+    void decidesOncePerWindow() {
+        ResolutionController controller = new ResolutionController(10, 40);
+
+        for (int frame = 0; frame < ResolutionController.WINDOW_FRAMES - 1; frame++) {
+            assertEquals(640, controller.update(2 * BUDGET_NANOS, 640, MAX_COLUMNS));
+        }
+        assertEquals(512, controller.update(2 * BUDGET_NANOS, 640, MAX_COLUMNS));
+    }
+
+    @Test
+    void waitsAfterEveryChange() {
+        ResolutionController controller = new ResolutionController(10, 40);
+
+        int columns = window(controller, 2 * BUDGET_NANOS, 640);
+        assertEquals(512, columns);
+        // still over budget, but the cooldown holds the resolution
+        for (int cooldown = 0; cooldown < ResolutionController.COOLDOWN_WINDOWS; cooldown++) {
+            assertEquals(512, window(controller, 2 * BUDGET_NANOS, columns));
+        }
+        columns = window(controller, 2 * BUDGET_NANOS, columns);
+        assertEquals(408, columns);
+
+        // far below the budget: the cooldown also holds after a downscale before going back up
+        for (int cooldown = 0; cooldown < ResolutionController.COOLDOWN_WINDOWS; cooldown++) {
+            assertEquals(408, window(controller, BUDGET_NANOS / 10, columns));
+        }
+        columns = window(controller, BUDGET_NANOS / 10, columns);
+        assertEquals(472, columns);
+        // and right after the upscale, even when over budget
+        for (int cooldown = 0; cooldown < ResolutionController.COOLDOWN_WINDOWS; cooldown++) {
+            assertEquals(472, window(controller, 2 * BUDGET_NANOS, columns));
+        }
+    }
+
+    @Test
+    void settlesBetweenTheThresholds() {
+        ResolutionController controller = new ResolutionController(10, 40);
+
+        // frame times proportional to the columns, 5% over budget at 640 columns
+        int columns = 640;
+        int changes = 0;
+        for (int window = 0; window < 50; window++) {
+            int next = window(controller, (long) (1.05 * BUDGET_NANOS * columns / 640), columns);
+            if (next != columns) {
+                changes++;
+            }
+            columns = next;
+        }
+        assertEquals(512, columns);
+        assertEquals(1, changes);
+    }
+
+    @Test
+    void staysWithinBounds() {
+        ResolutionController controller = new ResolutionController(10, 40);
+
+        int columns = 48;
+        for (int window = 0; window < 10; window++) {
+            columns = window(controller, 10 * BUDGET_NANOS, columns);
+        }
+        assertEquals(40, columns);
+
+        for (int window = 0; window < 100; window++) {
+            columns = window(controller, 1, columns);
+        }
+        assertEquals(MAX_COLUMNS, columns);
+    }
+
+}
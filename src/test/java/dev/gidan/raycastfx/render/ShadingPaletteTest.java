@@ -0,0 +1,55 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.RayCaster;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShadingPaletteTest {
+
+    private static final int RED = 0xFF0000;
+    private static final int BLUE = 0x0000FF;
+
+    @Test
+    void matchesHsbShading() {
+        ShadingPalette palette = new ShadingPalette(new int[]{0, RED}, 1);
+        for (double distance = 0; distance < 200; distance += 0.125) {
+            Color expected = Color.hsb(Color.RED.getHue(), Color.RED.getSaturation(), Math.max(0, Math.min(1.0, 1 / distance * 10)));
+            int argb = palette.argb(OccupancyGrid.WALL, RayCaster.SIDE_VERTICAL, distance);
+
+            assertEquals(0xFF, argb >>> 24, "alpha at " + distance);
+            assertEquals(expected.getRed() * 255, (argb >> 16) & 0xFF, 1, "red at " + distance);
+            assertEquals(0, argb & 0xFFFF, "green and blue at " + distance);
+        }
+    }
+
+    @Test
+    void darkensHorizontalSides() {
+        ShadingPalette palette = new ShadingPalette(new int[]{0, RED}, 0.5);
+        int vertical = palette.argb(OccupancyGrid.WALL, RayCaster.SIDE_VERTICAL, 5);
+        int horizontal = palette.argb(OccupancyGrid.WALL, RayCaster.SIDE_HORIZONTAL, 5);
+
+        assertEquals(255, (vertical >> 16) & 0xFF);
+        assertEquals(128, (horizontal >> 16) & 0xFF);
+    }
+
+    @Test
+    void shadesEveryWallType() {
+        ShadingPalette palette = new ShadingPalette(new int[]{0, RED, BLUE}, 1);
+
+        assertEquals(0xFF0000FF, palette.argb((byte) 2, RayCaster.SIDE_VERTICAL, 1));
+        // types without a color fall back to the default wall
+        assertEquals(0xFFFF0000, palette.argb((byte) 7, RayCaster.SIDE_VERTICAL, 1));
+    }
+
+    @Test
+    void clampsDistances() {
+        ShadingPalette palette = new ShadingPalette(new int[]{0, RED}, 1);
+        int index = palette.index(OccupancyGrid.WALL, RayCaster.SIDE_VERTICAL, 1e9);
+        assertTrue(index < palette.size());
+        assertEquals(palette.argb(OccupancyGrid.WALL, RayCaster.SIDE_VERTICAL, 200), palette.argb(index));
+    }
+
+}
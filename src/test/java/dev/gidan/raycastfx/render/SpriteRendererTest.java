@@ -0,0 +1,156 @@
+package dev.gidan.raycastfx.render;
+
+import dev.gidan.raycastfx.world.OccupancyGrid;
+import dev.gidan.raycastfx.world.PotentiallyVisibleSet;
+import dev.gidan.raycastfx.world.VisibleCells;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpriteRendererTest {
+
+    private static final int WIDTH = 100;
+    private static final int HEIGHT = 100;
+    private static final int SIZE = 4;
+
+    /**
+     * One fully opaque texture per color
+     */
+    private static TextureAtlas solid(int... colors) {
+        return new TextureAtlas(SIZE, Arrays.stream(colors).mapToObj(rgb -> {
+            int[] texels = new int[SIZE * SIZE];
+            Arrays.fill(texels, 0xFF000000 | rgb);
+            return texels;
+        }).toList());
+    }
+
+    private static double[] depthBuffer(double depth) {
+        double[] buffer = new double[WIDTH];
+        Arrays.fill(buffer, depth);
+        return buffer;
+    }
+
+    /**
+     * Draws the sprites seen from the origin, facing positive x with a field of view of 90 degrees
+     */
+    private static Framebuffer draw(SpriteRenderer renderer, Sprites sprites, double[] depthBuffer) {
+        Framebuffer framebuffer = new Framebuffer(WIDTH, HEIGHT);
+        renderer.draw(framebuffer, sprites, depthBuffer, 0, 0, 1, 0, 1, 0);
+        return framebuffer;
+    }
+
+    /**
+     * Sprites at depth d are 1000 / d pixels tall for a scale of 1, and stand on the floor at 50 + 500 / d
+     */
+    private static int pixel(Framebuffer framebuffer, int x, int y) {
+        return framebuffer.getPixels()[y * WIDTH + x] & 0xFFFFFF;
+    }
+
+    @Test
+    void cullsSpritesOutsideTheView() {
+        SpriteRenderer renderer = new SpriteRenderer(solid(0xFFFFFF));
+        Sprites sprites = new Sprites();
+        sprites.add(-20, 0, 1, 0);
+        sprites.add(20, 200, 1, 0);
+        sprites.add(0.5, 0, 1, 0);
+
+        Framebuffer framebuffer = draw(renderer, sprites, depthBuffer(Double.POSITIVE_INFINITY));
+        assertEquals(0, renderer.getVisibleSprites());
+        assertEquals(3, renderer.getCulledSprites());
+        assertTrue(Arrays.stream(framebuffer.getPixels()).allMatch(argb -> argb == 0));
+    }
+
+    @Test
+    void cullsSpritesOutOfSight() {
+        // a wall at x = 2, between the camera cell and the cell of the sprite
+        OccupancyGrid grid = new OccupancyGrid(10, 10);
+        for (int y = 0; y < 10; y++) {
+            grid.set(2, y, OccupancyGrid.WALL);
+        }
+        VisibleCells visibleCells = new VisibleCells();
+        PotentiallyVisibleSet.compute(grid).visibleFrom(0, 0, visibleCells);
+
+        SpriteRenderer renderer = new SpriteRenderer(solid(0xFFFFFF));
+        Sprites sprites = new Sprites();
+        sprites.add(90, 30, 1, 0);
+        sprites.add(30, 10, 1, 0);
+
+        Framebuffer framebuffer = new Framebuffer(WIDTH, HEIGHT);
+        renderer.draw(framebuffer, sprites, depthBuffer(Double.POSITIVE_INFINITY), 10, 10, 1, 0, 1, 0, visibleCells);
+        assertEquals(1, renderer.getVisibleSprites());
+
+        renderer.draw(framebuffer, sprites, depthBuffer(Double.POSITIVE_INFINITY), 10, 10, 1, 0, 1, 0);
+        assertEquals(2, renderer.getVisibleSprites());
+    }
+
+    @Test
+    void keepsSpritesPartlyInSight() {
+        OccupancyGrid grid = new OccupancyGrid(10, 10);
+        for (int y = 0; y < 10; y++) {
+            grid.set(2, y, OccupancyGrid.WALL);
+        }
+        VisibleCells visibleCells = new VisibleCells();
+        PotentiallyVisibleSet.compute(grid).visibleFrom(0, 0, visibleCells);
+        assertFalse(visibleCells.contains(3, 5));
+        assertTrue(visibleCells.contains(2, 5));
+
+        // centered on a cell out of sight, half a cell wide on each side, reaching over the wall
+        SpriteRenderer renderer = new SpriteRenderer(solid(0xFFFFFF));
+        Sprites sprites = new Sprites();
+        sprites.add(61, 110, 1, 0);
+
+        Framebuffer framebuffer = new Framebuffer(WIDTH, HEIGHT);
+        renderer.draw(framebuffer, sprites, depthBuffer(Double.POSITIVE_INFINITY), 10, 10, 0, 1, 1, 0, visibleCells);
+        assertEquals(1, renderer.getVisibleSprites());
+    }
+
+    @Test
+    void clipsSpritesAgainstTheWalls() {
+        SpriteRenderer renderer = new SpriteRenderer(solid(0xFFFFFF));
+        Sprites sprites = new Sprites();
+        sprites.add(50, 0, 1, 0);
+
+        draw(renderer, sprites, depthBuffer(40));
+        assertEquals(0, renderer.getVisibleSprites());
+
+        // a wall nearer than the sprite on the left half of the screen only
+        double[] depthBuffer = depthBuffer(Double.POSITIVE_INFINITY);
+        Arrays.fill(depthBuffer, 0, WIDTH / 2, 40);
+        Framebuffer framebuffer = draw(renderer, sprites, depthBuffer);
+        assertEquals(1, renderer.getVisibleSprites());
+        // the sprite covers the rows 40 to 60
+        assertEquals(0, pixel(framebuffer, WIDTH / 2 - 1, 50));
+        assertNotEquals(0, pixel(framebuffer, WIDTH / 2, 50));
+    }
+
+    @Test
+    void drawsNearSpritesOverFarOnes() {
+        SpriteRenderer renderer = new SpriteRenderer(solid(0x0000FF, 0xFF0000));
+        Sprites sprites = new Sprites();
+        // the near sprite comes first, so drawing in insertion order would hide it
+        sprites.add(20, 0, 0.5, 1);
+        sprites.add(40, 0, 0.5, 0);
+
+        Framebuffer framebuffer = draw(renderer, sprites, depthBuffer(Double.POSITIVE_INFINITY));
+        assertEquals(2, renderer.getVisibleSprites());
+        // rows 50 to 75 for the near sprite, 50 to 62 for the far one
+        assertEquals(0, pixel(framebuffer, WIDTH / 2, 55) & 0xFF);
+        assertNotEquals(0, pixel(framebuffer, WIDTH / 2, 55) & 0xFF0000);
+    }
+
+    @Test
+    void skipsTransparentTexels() {
+        int[] texels = new int[SIZE * SIZE];
+        SpriteRenderer renderer = new SpriteRenderer(new TextureAtlas(SIZE, List.of(texels)));
+        Sprites sprites = new Sprites();
+        sprites.add(20, 0, 1, 0);
+
+        Framebuffer framebuffer = draw(renderer, sprites, depthBuffer(Double.POSITIVE_INFINITY));
+        assertEquals(1, renderer.getVisibleSprites());
+        assertTrue(Arrays.stream(framebuffer.getPixels()).allMatch(argb -> argb == 0));
+    }
+
+}
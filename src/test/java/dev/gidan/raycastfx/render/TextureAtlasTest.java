@@ -0,0 +1,82 @@
+package dev.gidan.raycastfx.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextureAtlasTest {
+
+    private static final int SIZE = 4;
+
+    /**
+     * Texel (x, y) of a 4x4 texture holds x * 16 + y in its blue channel
+     */
+    private static int[] gradient() {
+        int[] texels = new int[SIZE * SIZE];
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                texels[y * SIZE + x] = 0xFF000000 | (x * 16 + y);
+            }
+        }
+        return texels;
+    }
+
+    @Test
+    void storesColumnsContiguously() {
+        TextureAtlas atlas = new TextureAtlas(SIZE, List.of(gradient(), gradient()));
+        assertEquals(3, atlas.getLevels());
+
+        for (int texture = 0; texture < 2; texture++) {
+            int offset = atlas.columnOffset(texture, 0, 0.6);
+            for (int y = 0; y < SIZE; y++) {
+                assertEquals(0xFF000000 | (2 * 16 + y), atlas.getTexels()[offset + y]);
+            }
+        }
+        assertEquals(atlas.columnOffset(0, 0, 0.75), atlas.columnOffset(0, 0, 1.0));
+    }
+
+    @Test
+    void averagesEveryLevel() {
+        TextureAtlas atlas = new TextureAtlas(SIZE, List.of(gradient()));
+
+        // texels (2..3, 0..1): 32, 33, 48, 49
+        int level1 = atlas.columnOffset(0, 1, 0.5);
+        assertEquals(0xFF000000 | 41, atlas.getTexels()[level1]);
+
+        // every texel, from 0 to 51
+        int level2 = atlas.columnOffset(0, 2, 0);
+        assertEquals(0xFF000000 | 26, atlas.getTexels()[level2]);
+    }
+
+    @Test
+    void picksLevelsByProjectedHeight() {
+        TextureAtlas atlas = new TextureAtlas(64, List.of(new int[64 * 64]));
+
+        assertEquals(0, atlas.levelFor(200));
+        assertEquals(0, atlas.levelFor(64));
+        assertEquals(0, atlas.levelFor(40));
+        assertEquals(1, atlas.levelFor(32));
+        assertEquals(2, atlas.levelFor(16));
+        assertEquals(6, atlas.levelFor(0.5));
+    }
+
+    @Test
+    void stretchesColumnsOverTheFramebuffer() {
+        Framebuffer framebuffer = new Framebuffer(3, 8);
+        int[] source = {1, 2, 3, 4};
+
+        framebuffer.drawScaledColumn(1, 1, 0, 8, source, 0, source.length, 256);
+        for (int y = 0; y < 8; y++) {
+            assertEquals(source[y / 2], framebuffer.getPixels()[y * 3 + 1]);
+            assertEquals(0, framebuffer.getPixels()[y * 3]);
+        }
+
+        // clipped at both ends, rows 0 and 7 sample the source at 1.125 and 2.875, at half light
+        framebuffer.drawScaledColumn(0, 1, -4, 16, source, 0, source.length, 128);
+        assertEquals(2 >> 1, framebuffer.getPixels()[0]);
+        assertEquals(3 >> 1, framebuffer.getPixels()[7 * 3]);
+    }
+
+}
@@ -0,0 +1,82 @@
+package dev.gidan.raycastfx.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RollingHistogramTest {
+
+    @Test
+    void evictsTheOldestSamples() {
+        RollingHistogram histogram = new RollingHistogram(3);
+        histogram.record(9_000_000);
+        histogram.record(1_000_000);
+        histogram.record(2_000_000);
+        assertEquals(3, histogram.getSize());
+        assertEquals(9_000_000, histogram.max());
+        assertEquals(4_000_000, histogram.mean());
+
+        histogram.record(3_000_000);
+        assertEquals(3, histogram.getSize());
+        assertEquals(3_000_000, histogram.max());
+        assertEquals(2_000_000, histogram.mean());
+        // the 9 ms sample left its bucket too
+        assertEquals(3_000_000, histogram.percentile(100));
+    }
+
+    @Test
+    void tracksTheMaxOfTheWindow() {
+        Random random = new Random(3);
+        long[] samples = new long[1000];
+        RollingHistogram histogram = new RollingHistogram(16);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextInt(20_000_000);
+            histogram.record(samples[i]);
+            long expected = Arrays.stream(samples, Math.max(0, i - 15), i + 1).max().orElseThrow();
+            assertEquals(expected, histogram.max(), "after sample " + i);
+        }
+    }
+
+    @Test
+    void readsPercentilesAtBucketEdges() {
+        RollingHistogram histogram = new RollingHistogram(10);
+        // the last nanosecond of the first bucket, the first of the second and one in the third
+        histogram.record(49_999);
+        histogram.record(50_000);
+        histogram.record(120_000);
+
+        assertEquals(50_000, histogram.percentile(0));
+        assertEquals(50_000, histogram.percentile(33));
+        assertEquals(100_000, histogram.percentile(34));
+        assertEquals(100_000, histogram.percentile(66));
+        // capped by the max rather than the end of its bucket
+        assertEquals(120_000, histogram.percentile(67));
+        assertEquals(120_000, histogram.percentile(100));
+    }
+
+    @Test
+    void countsLongSamplesInTheOverflowBucket() {
+        RollingHistogram histogram = new RollingHistogram(10);
+        histogram.record(1_000_000);
+        histogram.record(60_000_000);
+        histogram.record(80_000_000);
+
+        assertEquals(1_050_000, histogram.percentile(33));
+        // beyond the last bucket, the max is the only bound known
+        assertEquals(80_000_000, histogram.percentile(50));
+        assertEquals(80_000_000, histogram.percentile(100));
+        assertEquals(80_000_000, histogram.max());
+    }
+
+    @Test
+    void isEmptyAtFirst() {
+        RollingHistogram histogram = new RollingHistogram(4);
+        assertEquals(0, histogram.percentile(50));
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.mean());
+    }
+
+}
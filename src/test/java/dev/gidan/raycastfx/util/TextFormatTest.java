@@ -0,0 +1,43 @@
+package dev.gidan.raycastfx.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextFormatTest {
+
+    @Test
+    void appendsLikeStringFormat() {
+        double[] values = {0, 0.004, 0.005, 0.05, 1, 1.5, 12.345, 99.999, 1234.5678, -0.5, -3.14159, -180};
+        for (double value : values) {
+            for (int decimals = 0; decimals <= 3; decimals++) {
+                String expected = String.format(Locale.ROOT, "%." + decimals + "f", value);
+                String actual = TextFormat.appendFixed(new StringBuilder(), value, decimals).toString();
+                assertEquals(expected, actual, value + " with " + decimals + " decimals");
+            }
+        }
+    }
+
+    @Test
+    void pads() {
+        StringBuilder builder = new StringBuilder("x");
+        TextFormat.padLeft(builder.append("ab"), 1, 5);
+        assertEquals("x   ab", builder.toString());
+
+        TextFormat.padRight(builder.append("cd"), 6, 4);
+        assertEquals("x   abcd  ", builder.toString());
+
+        TextFormat.padLeft(builder.append("toolong"), 10, 3);
+        assertEquals("x   abcd  toolong", builder.toString());
+    }
+
+    @Test
+    void sameQuantizedValuesDisplayTheSame() {
+        assertEquals(TextFormat.quantize(1.231, 2), TextFormat.quantize(1.234, 2));
+        assertEquals(TextFormat.appendFixed(new StringBuilder(), 1.231, 2).toString(),
+                TextFormat.appendFixed(new StringBuilder(), 1.234, 2).toString());
+    }
+
+}
@@ -0,0 +1,124 @@
+package dev.gidan.raycastfx.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedWorldTest {
+
+    private static final int CRC = 0x12345678;
+    // not a multiple of the chunk size, so the edge chunks are partial
+    private static final int WIDTH = 300;
+    private static final int HEIGHT = 200;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTheSameCellsAsTheDenseGrid() throws IOException {
+        MapData map = randomMap();
+        Path file = directory.resolve("map.rcchunks");
+        ChunkedWorld.write(map, CRC, file);
+
+        try (ChunkedWorld world = ChunkedWorld.open(file, CRC, Long.MAX_VALUE)) {
+            assertNotNull(world);
+            assertEquals(WIDTH, world.getWidth());
+            assertEquals(HEIGHT, world.getHeight());
+            assertEquals(map.spawns(), world.getSpawns());
+
+            for (int y = -1; y <= HEIGHT; y++) {
+                for (int x = -1; x <= WIDTH; x++) {
+                    assertEquals(map.grid().get(x, y), world.get(x, y), "cell " + x + "," + y);
+                }
+            }
+            assertEquals(0, world.getEvictions());
+        }
+    }
+
+    @Test
+    void evictsChunksBeyondTheBudget() throws IOException {
+        MapData map = randomMap();
+        Path file = directory.resolve("map.rcchunks");
+        ChunkedWorld.write(map, CRC, file);
+
+        // the budget is raised to the minimum of 9 chunks, out of 20
+        try (ChunkedWorld world = ChunkedWorld.open(file, CRC, 1)) {
+            assertNotNull(world);
+            Random random = new Random(7);
+            for (int i = 0; i < 10_000; i++) {
+                int x = random.nextInt(WIDTH);
+                int y = random.nextInt(HEIGHT);
+                assertEquals(map.grid().get(x, y), world.get(x, y), "cell " + x + "," + y);
+            }
+
+            assertEquals(9, world.getResidentChunks());
+            assertTrue(world.getEvictions() > 0);
+            assertEquals(world.getLoads() - world.getEvictions(), world.getResidentChunks());
+        }
+    }
+
+    @Test
+    void prefetchesChunksAroundACell() throws Exception {
+        MapData map = randomMap();
+        Path file = directory.resolve("map.rcchunks");
+        ChunkedWorld.write(map, CRC, file);
+
+        try (ChunkedWorld world = ChunkedWorld.open(file, CRC, Long.MAX_VALUE)) {
+            assertNotNull(world);
+            world.prefetchAround(100, 100);
+
+            // the 3x3 chunks around chunk 1,1 are loaded in the background
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (world.getLoads() < 9 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(9, world.getLoads());
+
+            world.get(100, 100);
+            assertEquals(9, world.getLoads());
+        }
+    }
+
+    @Test
+    void releasesTheChunksOnClose() throws IOException {
+        Path file = directory.resolve("map.rcchunks");
+        ChunkedWorld.write(randomMap(), CRC, file);
+
+        ChunkedWorld world = ChunkedWorld.open(file, CRC, Long.MAX_VALUE);
+        assertNotNull(world);
+        world.get(10, 10);
+        world.close();
+
+        assertEquals(0, world.getResidentChunks());
+        assertThrows(IllegalStateException.class, () -> world.get(10, 10));
+    }
+
+    @Test
+    void ignoresStaleFiles() throws IOException {
+        Path file = directory.resolve("map.rcchunks");
+        ChunkedWorld.write(randomMap(), CRC, file);
+
+        assertNull(ChunkedWorld.open(file, CRC + 1, Long.MAX_VALUE));
+        assertNull(ChunkedWorld.open(directory.resolve("missing.rcchunks"), CRC, Long.MAX_VALUE));
+    }
+
+    private static MapData randomMap() {
+        Random random = new Random(42);
+        OccupancyGrid grid = new OccupancyGrid(WIDTH, HEIGHT);
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                if (random.nextDouble() < 0.3) {
+                    grid.set(x, y, OccupancyGrid.WALL);
+                }
+            }
+        }
+        return new MapData(grid, List.of(new MapData.Spawn(3, 4, MapData.PLAYER_SPAWN_RGB)));
+    }
+
+}
@@ -0,0 +1,67 @@
+package dev.gidan.raycastfx.world;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircleSweepTest {
+
+    private static final int CELL = WorldGrid.CELL_SIZE;
+    private static final double DELTA = 1e-4;
+
+    /**
+     * 10x10 cells, a single wall cell at (5, 5)
+     */
+    private static OccupancyGrid pillar() {
+        OccupancyGrid grid = new OccupancyGrid(10, 10);
+        grid.set(5, 5, OccupancyGrid.WALL);
+        return grid;
+    }
+
+    @Test
+    void movesFreelyWithoutWalls() {
+        OccupancyGrid grid = pillar();
+        assertEquals(30, CircleSweep.sweepX(grid, 10, 10, 5, 20));
+        assertEquals(-40, CircleSweep.sweepY(grid, 10, 10, 5, -50));
+    }
+
+    @Test
+    void stopsAgainstTheFaceOfAWall() {
+        double y = 5.5 * CELL;
+        assertEquals(5 * CELL - 5, CircleSweep.sweepX(pillar(), 2 * CELL, y, 5, 10 * CELL), DELTA);
+        assertEquals(6 * CELL + 5, CircleSweep.sweepX(pillar(), 9 * CELL, y, 5, -10 * CELL), DELTA);
+        assertEquals(5 * CELL, CircleSweep.sweepY(pillar(), y, 0, 0, 10 * CELL), DELTA);
+    }
+
+    @Test
+    void doesNotTunnelThroughThinWalls() {
+        // a move of a whole map in a single step still stops at the one cell thick wall
+        double reached = CircleSweep.sweepX(pillar(), 0.5 * CELL, 5.5 * CELL, 0, 1000 * CELL);
+        assertTrue(reached < 5 * CELL);
+    }
+
+    @Test
+    void stopsAgainstTheCornerOfAWall() {
+        // the center passes 3 units above the wall, the circle touches its top left corner
+        double y = 5 * CELL - 3;
+        double reached = CircleSweep.sweepX(pillar(), 2 * CELL, y, 5, 10 * CELL);
+        assertEquals(5 * CELL - 4, reached, DELTA);
+
+        // further above, it passes by
+        assertEquals(12 * CELL, CircleSweep.sweepX(pillar(), 2 * CELL, 5 * CELL - 6, 5, 10 * CELL));
+    }
+
+    @Test
+    void slidesAlongTheWallItRestsOn() {
+        OccupancyGrid grid = new OccupancyGrid(10, 10);
+        for (int x = 0; x < 10; x++) {
+            grid.set(x, 5, OccupancyGrid.WALL);
+        }
+
+        // falls onto the floor, then moves along it
+        double y = CircleSweep.sweepY(grid, 2 * CELL, 2 * CELL, 5, 5 * CELL);
+        assertEquals(5 * CELL - 5, y, DELTA);
+        assertEquals(8 * CELL, CircleSweep.sweepX(grid, 2 * CELL, y, 5, 6 * CELL));
+    }
+
+}
@@ -0,0 +1,89 @@
+package dev.gidan.raycastfx.world;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapFormatTest {
+
+    private static final int CRC = 0xCAFEBABE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTrips() throws IOException {
+        MapData map = randomMap(97, 61);
+        Path file = directory.resolve("map.rcmap");
+
+        MapFormat.write(map, CRC, file);
+        MapData read = MapFormat.read(file, CRC);
+
+        assertNotNull(read);
+        assertEquals(map.spawns(), read.spawns());
+        assertEquals(map.grid().getWidth(), read.grid().getWidth());
+        assertEquals(map.grid().getHeight(), read.grid().getHeight());
+        assertArrayEquals(((OccupancyGrid) map.grid()).cells(), ((OccupancyGrid) read.grid()).cells());
+    }
+
+    @Test
+    void ignoresStaleFiles() throws IOException {
+        Path file = directory.resolve("map.rcmap");
+        MapFormat.write(randomMap(8, 8), CRC, file);
+
+        assertNull(MapFormat.read(file, CRC + 1));
+        assertNull(MapFormat.read(directory.resolve("missing.rcmap"), CRC));
+    }
+
+    @Test
+    void rejectsCorruptedFiles() throws IOException {
+        Path file = directory.resolve("map.rcmap");
+        MapFormat.write(randomMap(32, 32), CRC, file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> MapFormat.read(file, CRC));
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IOException.class, () -> MapFormat.read(file, CRC));
+    }
+
+    @Test
+    void classifiesPixels() {
+        int black = 0xFF000000;
+        int white = 0xFFFFFFFF;
+        int red = 0xFFFF0000;
+        int transparent = 0x00000000;
+        MapData map = MapData.fromPixels(3, 2, new int[]{
+                black, white, red,
+                transparent, black, 0xFF00FF00
+        });
+
+        assertTrue(map.grid().isSolid(0, 0));
+        assertFalse(map.grid().isSolid(1, 0));
+        assertFalse(map.grid().isSolid(2, 0));
+        assertFalse(map.grid().isSolid(0, 1));
+        assertTrue(map.grid().isSolid(1, 1));
+        assertEquals(new MapData.Spawn(2, 0, MapData.PLAYER_SPAWN_RGB), map.findSpawn(MapData.PLAYER_SPAWN_RGB).orElseThrow());
+        assertEquals(2, map.spawns().size());
+    }
+
+    private static MapData randomMap(int width, int height) {
+        Random random = new Random(42);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            // long runs of floor broken by walls, with a few spawn points
+            int roll = random.nextInt(100);
+            pixels[i] = roll < 20 ? 0xFF000000 : roll == 99 ? 0xFF0000FF : 0xFFFFFFFF;
+        }
+        return MapData.fromPixels(width, height, pixels);
+    }
+
+}
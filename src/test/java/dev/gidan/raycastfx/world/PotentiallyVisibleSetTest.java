@@ -0,0 +1,194 @@
+package dev.gidan.raycastfx.world;
+
+import dev.gidan.raycastfx.util.Ray;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PotentiallyVisibleSetTest {
+
+    private static final int CRC = 0x12345678;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Two rooms of 14x9 cells, separated by a wall at x = 15 with a door at y = 8
+     */
+    private static OccupancyGrid rooms() {
+        OccupancyGrid grid = new OccupancyGrid(31, 11);
+        for (int x = 0; x < 31; x++) {
+            grid.set(x, 0, OccupancyGrid.WALL);
+            grid.set(x, 10, OccupancyGrid.WALL);
+        }
+        for (int y = 0; y < 11; y++) {
+            grid.set(0, y, OccupancyGrid.WALL);
+            grid.set(30, y, OccupancyGrid.WALL);
+            if (y != 8) {
+                grid.set(15, y, OccupancyGrid.WALL);
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    void hidesCellsBehindWalls() {
+        PotentiallyVisibleSet visibility = PotentiallyVisibleSet.compute(rooms());
+
+        assertTrue(visibility.isVisible(10, 3, 10, 3));
+        assertTrue(visibility.isVisible(10, 3, 4, 7));
+        // the wall between the rooms and the wall around them
+        assertTrue(visibility.isVisible(10, 3, 15, 3));
+        assertTrue(visibility.isVisible(10, 3, 10, 0));
+        // the other room and the cells beyond the outer wall
+        assertFalse(visibility.isVisible(10, 3, 18, 3));
+        assertFalse(visibility.isVisible(10, 3, 10, -1));
+        // the other room through the door
+        assertTrue(visibility.isVisible(14, 8, 18, 8));
+    }
+
+    @Test
+    void hidesCellsBeyondTheDrawDistance() {
+        PotentiallyVisibleSet visibility = PotentiallyVisibleSet.compute(new OccupancyGrid(40, 40));
+
+        assertTrue(visibility.isVisible(5, 5, 14, 5));
+        assertFalse(visibility.isVisible(5, 5, 5 + PotentiallyVisibleSet.RADIUS + 1, 5));
+        assertFalse(visibility.isVisible(5, 5, 30, 30));
+    }
+
+    @Test
+    void seesEverythingFromSolidCells() {
+        PotentiallyVisibleSet visibility = PotentiallyVisibleSet.compute(rooms());
+
+        assertTrue(visibility.isVisible(15, 3, 18, 3));
+        assertTrue(visibility.isVisible(-5, 3, 18, 3));
+        VisibleCells cells = new VisibleCells();
+        visibility.visibleFrom(15, 3, cells);
+        assertTrue(cells.contains(100, 100));
+    }
+
+    @Test
+    void containsEveryCellReachedByARay() {
+        Random random = new Random(5);
+        double maxDistance = Ray.INFINITE_DISTANCE / WorldGrid.CELL_SIZE;
+        for (int map = 0; map < 3; map++) {
+            OccupancyGrid grid = random(40, 30, 0.3, random.nextLong());
+            PotentiallyVisibleSet visibility = PotentiallyVisibleSet.compute(grid);
+
+            for (int camera = 0; camera < 300; camera++) {
+                int cellX = random.nextInt(40);
+                int cellY = random.nextInt(30);
+                if (grid.isSolid(cellX, cellY)) {
+                    continue;
+                }
+                double x = cellX + random.nextDouble();
+                double y = cellY + random.nextDouble();
+                for (int ray = 0; ray < 2000; ray++) {
+                    double angle = random.nextDouble() * 2 * Math.PI;
+                    walk(grid, x, y, Math.cos(angle), Math.sin(angle), maxDistance, (toX, toY) ->
+                            assertTrue(visibility.isVisible(cellX, cellY, toX, toY),
+                                    "(" + toX + ", " + toY + ") from (" + x + ", " + y + ")"));
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks a ray cell by cell like the ray caster does, until it enters a solid cell or goes past the distance.
+     */
+    private static void walk(WorldGrid grid, double x, double y, double directionX, double directionY,
+                             double maxDistance, BiConsumer<Integer, Integer> entered) {
+        int cellX = (int) Math.floor(x);
+        int cellY = (int) Math.floor(y);
+        int stepX = directionX < 0 ? -1 : 1;
+        int stepY = directionY < 0 ? -1 : 1;
+        double deltaX = Math.abs(1 / directionX);
+        double deltaY = Math.abs(1 / directionY);
+        double nextX = (directionX < 0 ? x - cellX : cellX + 1 - x) * deltaX;
+        double nextY = (directionY < 0 ? y - cellY : cellY + 1 - y) * deltaY;
+        while (true) {
+            if (nextX < nextY) {
+                if (nextX > maxDistance) {
+                    return;
+                }
+                nextX += deltaX;
+                cellX += stepX;
+            } else {
+                if (nextY > maxDistance) {
+                    return;
+                }
+                nextY += deltaY;
+                cellY += stepY;
+            }
+            entered.accept(cellX, cellY);
+            if (grid.isSolid(cellX, cellY)) {
+                return;
+            }
+        }
+    }
+
+    @Test
+    void decodesTheSameSetsAsItQueries() {
+        OccupancyGrid grid = random(40, 30);
+        PotentiallyVisibleSet visibility = PotentiallyVisibleSet.compute(grid);
+        VisibleCells cells = new VisibleCells();
+
+        for (int y = 0; y < 30; y += 3) {
+            for (int x = 0; x < 40; x += 3) {
+                visibility.visibleFrom(x, y, cells);
+                for (int toY = y - 13; toY <= y + 13; toY++) {
+                    for (int toX = x - 13; toX <= x + 13; toX++) {
+                        assertEquals(visibility.isVisible(x, y, toX, toY), cells.contains(toX, toY));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void roundTrips() throws IOException {
+        OccupancyGrid grid = random(25, 20);
+        PotentiallyVisibleSet visibility = PotentiallyVisibleSet.compute(grid);
+        Path file = directory.resolve("map.rcpvs");
+
+        visibility.write(CRC, file);
+        PotentiallyVisibleSet read = PotentiallyVisibleSet.read(file, CRC);
+
+        assertNotNull(read);
+        assertEquals(visibility.getRunCount(), read.getRunCount());
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 25; x++) {
+                for (int toY = 0; toY < 20; toY++) {
+                    for (int toX = 0; toX < 25; toX++) {
+                        assertEquals(visibility.isVisible(x, y, toX, toY), read.isVisible(x, y, toX, toY));
+                    }
+                }
+            }
+        }
+        assertNull(PotentiallyVisibleSet.read(file, CRC + 1));
+    }
+
+    private static OccupancyGrid random(int width, int height) {
+        return random(width, height, 0.2, 11);
+    }
+
+    private static OccupancyGrid random(int width, int height, double density, long seed) {
+        OccupancyGrid grid = new OccupancyGrid(width, height);
+        Random random = new Random(seed);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (random.nextDouble() < density) {
+                    grid.set(x, y, OccupancyGrid.WALL);
+                }
+            }
+        }
+        return grid;
+    }
+
+}
@@ -0,0 +1,78 @@
+package dev.gidan.raycastfx.world;
+
+import dev.gidan.raycastfx.util.Ray;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RayCasterTest {
+
+    private static final double DELTA = 1e-9;
+
+    private RayCaster caster() {
+        OccupancyGrid grid = new OccupancyGrid(10, 10);
+        grid.set(5, 0, OccupancyGrid.WALL);
+        grid.set(0, 5, OccupancyGrid.WALL);
+        grid.set(3, 3, OccupancyGrid.WALL);
+        return new RayCaster(grid);
+    }
+
+    @Test
+    public void hitsVerticalFace() {
+        RayCaster caster = caster();
+
+        assertEquals(Ray.Status.COLLIDING, caster.cast(10, 10, 1, 0, Ray.INFINITE_DISTANCE));
+        assertEquals(100, caster.getHitX(), DELTA);
+        assertEquals(10, caster.getHitY(), DELTA);
+        assertEquals(90, caster.getDistance(), DELTA);
+        assertEquals(RayCaster.SIDE_VERTICAL, caster.getSide());
+        assertEquals(5, caster.getCellX());
+        assertEquals(0, caster.getCellY());
+        assertEquals(5, caster.getCellsTraversed());
+    }
+
+    @Test
+    public void hitsHorizontalFace() {
+        RayCaster caster = caster();
+
+        assertEquals(Ray.Status.COLLIDING, caster.cast(10, 10, 0, 1, Ray.INFINITE_DISTANCE));
+        assertEquals(10, caster.getHitX(), DELTA);
+        assertEquals(100, caster.getHitY(), DELTA);
+        assertEquals(RayCaster.SIDE_HORIZONTAL, caster.getSide());
+    }
+
+    @Test
+    public void hitsDiagonally() {
+        RayCaster caster = caster();
+        double d = Math.sqrt(0.5);
+
+        assertEquals(Ray.Status.COLLIDING, caster.cast(10, 10, d, d, Ray.INFINITE_DISTANCE));
+        // the ray passes exactly through the grid corners and enters the wall at its top left corner
+        assertEquals(60, caster.getHitX(), DELTA);
+        assertEquals(60, caster.getHitY(), DELTA);
+        assertEquals(50 * Math.sqrt(2), caster.getDistance(), DELTA);
+    }
+
+    @Test
+    public void stopsAtMaxDistance() {
+        RayCaster caster = caster();
+
+        assertEquals(Ray.Status.INFINITE, caster.cast(10, 10, -1, 0, Ray.INFINITE_DISTANCE));
+        assertEquals(Ray.INFINITE_DISTANCE, caster.getDistance(), DELTA);
+        assertEquals(10 - Ray.INFINITE_DISTANCE, caster.getHitX(), DELTA);
+        assertEquals(RayCaster.SIDE_NONE, caster.getSide());
+
+        assertEquals(Ray.Status.INFINITE, caster.cast(10, 10, 1, 0, 50));
+    }
+
+    @Test
+    public void startsInsideWall() {
+        RayCaster caster = caster();
+
+        assertEquals(Ray.Status.COLLIDING, caster.cast(65, 65, 1, 0, Ray.INFINITE_DISTANCE));
+        assertEquals(0, caster.getDistance(), DELTA);
+        assertEquals(65, caster.getHitX(), DELTA);
+        assertEquals(RayCaster.SIDE_NONE, caster.getSide());
+    }
+
+}